@@ -0,0 +1,66 @@
+package com.pm.track.auth.security;
+
+import com.pm.track.common.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done by login and JwtAuthenticationFilter.
+ * The "uncached" variants disable the verified-token cache (size 0), so each
+ * call pays the full parse and HMAC check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private UserDetailsImpl user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString("benchmark-secret-benchmark-secret-0123".getBytes());
+        cached = new JwtUtil(secret, 3_600_000, 10_000);
+        uncached = new JwtUtil(secret, 3_600_000, 0);
+        user = new UserDetailsImpl(42L, "jane.doe@example.com", UserRole.USER, true, 0);
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Claims verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncached.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.extractUsername(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl principalFromClaimsCached() {
+        return cached.toPrincipal(cached.verify(token));
+    }
+}
@@ -0,0 +1,50 @@
+package com.pm.track.auth.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing and verification through the same DelegatingPasswordEncoder the
+ * application builds, for each {@code security.password.encoder} and, for
+ * bcrypt, each {@code security.password.bcrypt-strength}: the numbers to pick
+ * a cost against a login latency budget on the target machine. Single-shot
+ * timing is enough at these durations; narrow it with
+ * {@code -Djmh.args="PasswordEncoderBenchmark -p encoder=pbkdf2"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    // Encoder id, with the bcrypt cost after the dash
+    @Param({"bcrypt-8", "bcrypt-10", "bcrypt-12", "pbkdf2"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] idAndStrength = encoder.split("-");
+        int bcryptStrength = idAndStrength.length > 1 ? Integer.parseInt(idAndStrength[1]) : 10;
+        passwordEncoder = new PasswordEncoderConfig().passwordEncoder(idAndStrength[0], bcryptStrength);
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,52 @@
+package com.pm.track.auth.security;
+
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.user.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request principal construction and the authorities lookup Spring
+ * Security performs on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private User user;
+    private UserDetailsImpl principal;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .name("Jane Doe")
+                .email("jane.doe@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuu")
+                .role(UserRole.USER)
+                .enabled(true)
+                .build();
+        principal = new UserDetailsImpl(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl fromEntity() {
+        return new UserDetailsImpl(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl fromClaims() {
+        return new UserDetailsImpl(42L, "jane.doe@example.com", UserRole.USER, true, 0);
+    }
+
+    @Benchmark
+    public void authorities(Blackhole bh) {
+        principal.getAuthorities().forEach(bh::consume);
+    }
+}
@@ -0,0 +1,37 @@
+package com.pm.track.common;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the outbox mail bodies, using the templates EmailService
+ * itself loads. Run with the default "-prof gc" to see bytes per render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    private final Map<String, String> name = Map.of("name", "Jane Doe");
+    private final Map<String, String> token = Map.of("token", "q3Jx0b2m7Vn4cL8yWkP1sZ6tR9uH5eA-fD_gXoIiBjY");
+
+    @Benchmark
+    public byte[] welcome() {
+        return EmailService.WELCOME_HTML.render(name);
+    }
+
+    @Benchmark
+    public byte[] returningUserOffer() {
+        return EmailService.RETURNING_USER_OFFER_HTML.render(name);
+    }
+
+    @Benchmark
+    public byte[] passwordReset() {
+        return EmailService.PASSWORD_RESET_TEXT.render(token);
+    }
+}
@@ -0,0 +1,65 @@
+package com.pm.track.user.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.user.dto.UserResponse;
+import com.pm.track.user.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and JSON serialization behind GET /api/users/me and
+ * one page of GET /api/users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseBenchmark {
+
+    @Param({"50"})
+    public int pageSize;
+
+    private User user;
+    private UserResponse response;
+    private List<UserResponse> page;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .name("Jane Doe")
+                .email("jane.doe@example.com")
+                .role(UserRole.USER)
+                .enabled(true)
+                .build();
+        response = UserServiceImpl.mapToResponse(user);
+        page = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            page.add(new UserResponse(i, "User " + i, "user" + i + "@example.com", UserRole.USER));
+        }
+        writer = new ObjectMapper().writer();
+    }
+
+    @Benchmark
+    public UserResponse mapToResponse() {
+        return UserServiceImpl.mapToResponse(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
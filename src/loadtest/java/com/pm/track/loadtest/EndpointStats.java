@@ -0,0 +1,54 @@
+package com.pm.track.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds) plus outcome counts for one endpoint.
+ */
+final class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(3_600_000_000L, 3);
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * @param status HTTP status, or 0 when no response arrived
+     */
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(latencyNanos / 1000, latencies.getHighestTrackableValue()));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status == 0 || status >= 400) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double percentileMs(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMs() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+
+    String statusSummary() {
+        StringBuilder sb = new StringBuilder();
+        statuses.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> sb.append(sb.isEmpty() ? "" : " ")
+                        .append(e.getKey() == 0 ? "io" : e.getKey()).append('=').append(e.getValue().sum()));
+        return sb.toString();
+    }
+}
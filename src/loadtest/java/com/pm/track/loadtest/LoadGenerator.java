@@ -0,0 +1,126 @@
+package com.pm.track.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the workload in one of two ways. Closed loop: a fixed number of
+ * workers, each sending its next request as soon as the previous one
+ * returns, so throughput is what the server sustains. Open loop: requests
+ * are issued on a fixed schedule regardless of responses, and latency is
+ * measured from the scheduled send time, so queueing under overload shows
+ * up in the percentiles instead of silently lowering the offered load.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Workload workload;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    LoadGenerator(Workload workload) {
+        this.workload = workload;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    Map<Operation, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Runs the warmup and then the measured phase; returns the measured phase's length in nanoseconds.
+     */
+    long runClosed(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long until = measureFrom + duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < until) {
+                    Operation operation = workload.next();
+                    HttpRequest request = workload.request(operation);
+                    long start = System.nanoTime();
+                    int status = send(request);
+                    if (start >= measureFrom) {
+                        stats.get(operation).record(System.nanoTime() - start, status);
+                    }
+                }
+            }, "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return until - measureFrom;
+    }
+
+    /**
+     * Issues {@code rate} requests per second until the measured phase ends, then waits for stragglers.
+     */
+    long runOpen(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long until = measureFrom + duration.toNanos();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= until) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = workload.next();
+            boolean measured = intended >= measureFrom;
+            inFlight.incrementAndGet();
+            client.sendAsync(workload.request(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (measured) {
+                            stats.get(operation).record(System.nanoTime() - intended,
+                                    failure == null ? response.statusCode() : 0);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainUntil = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(50);
+        }
+        if (inFlight.get() > 0) {
+            System.err.println("Gave up waiting for " + inFlight.get() + " requests still in flight");
+        }
+        return until - measureFrom;
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
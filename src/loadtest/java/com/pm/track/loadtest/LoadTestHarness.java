@@ -0,0 +1,197 @@
+package com.pm.track.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.pm.track.TrackApplication;
+import com.pm.track.auth.security.JwtUtil;
+import com.pm.track.auth.security.UserDetailsImpl;
+import com.pm.track.common.enums.UserRole;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Boots the whole application against an embedded PostgreSQL and an
+ * in-process SMTP server, seeds users, drives a weighted mix of auth and
+ * user traffic and prints throughput, latency percentiles and error rates
+ * per endpoint. Run with:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="users=5000 mode=open rate=300 duration=2m"
+ * </pre>
+ *
+ * See {@link LoadTestOptions} for the arguments. Keep the machine otherwise
+ * idle and compare runs made with the same arguments.
+ */
+public final class LoadTestHarness {
+
+    private static final String PASSWORD = "LoadTest-Password-1";
+    private static final int SEED_BATCH = 1000;
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            GreenMail smtp = new GreenMail(new ServerSetup(0, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+            smtp.start();
+            try (ConfigurableApplicationContext context = startApplication(options, postgres, smtp.getSmtp().getPort())) {
+                run(options, context, smtp);
+            } finally {
+                smtp.stop();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options, EmbeddedPostgres postgres,
+                                                                   int smtpPort) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.docker.compose.enabled", false);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.mail.host", "127.0.0.1");
+        properties.put("spring.mail.port", smtpPort);
+        properties.put("jwt.secret", Base64.getEncoder().encodeToString(UUID.randomUUID().toString().repeat(2).getBytes()));
+        properties.put("jwt.expirationMs", 3_600_000);
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        if (options.profiles() != null) {
+            properties.put("spring.profiles.active", options.profiles());
+        }
+        if (!options.rateLimit()) {
+            // Every request comes from one address, so the per-IP buckets would reject almost everything
+            properties.put("security.rate-limit.ip.capacity", 4000);
+            properties.put("security.rate-limit.ip.refill-per-minute", Integer.MAX_VALUE / 1000);
+            properties.put("security.rate-limit.email.capacity", 4000);
+            properties.put("security.rate-limit.email.refill-per-minute", Integer.MAX_VALUE / 1000);
+        }
+
+        // As command-line arguments so they take precedence over application.properties
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        return new SpringApplication(TrackApplication.class).run(args);
+    }
+
+    private static void run(LoadTestOptions options, ConfigurableApplicationContext context, GreenMail smtp)
+            throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        List<Workload.SeededUser> users = seed(options.users(), context);
+        String adminToken = seedAdmin(context);
+
+        Workload workload = new Workload(URI.create("http://127.0.0.1:" + port), users, PASSWORD, adminToken,
+                options.mix());
+        LoadGenerator generator = new LoadGenerator(workload);
+
+        System.out.printf("%s loop, %s, warmup %ds, measured %ds, %d seeded users, mix %s, profiles %s%n",
+                options.openLoop() ? "open" : "closed",
+                options.openLoop() ? options.rate() + " req/s offered" : options.concurrency() + " workers",
+                options.warmup().toSeconds(), options.duration().toSeconds(), users.size(), options.mix(),
+                options.profiles() != null ? options.profiles() : "default");
+
+        long measuredNanos = options.openLoop()
+                ? generator.runOpen(options.rate(), options.warmup(), options.duration())
+                : generator.runClosed(options.concurrency(), options.warmup(), options.duration());
+
+        report(generator.stats(), measuredNanos / 1e9, options.csv());
+        System.out.printf("SMTP stub received %d messages%n", smtp.getReceivedMessages().length);
+    }
+
+    /**
+     * Inserts users directly with one shared hash (logins still pay a full
+     * verify) and mints their tokens in-process, so seeding stays fast.
+     */
+    private static List<Workload.SeededUser> seed(int count, ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        long start = System.nanoTime();
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(count, from + SEED_BATCH); i++) {
+                rows.add(new Object[]{"Seed " + i, "seed-" + i + "@loadtest.local", hash});
+            }
+            jdbc.batchUpdate("INSERT INTO users (name, email, password, role, enabled, token_version) " +
+                    "VALUES (?, ?, ?, 'USER', true, 0)", rows);
+        }
+
+        List<Workload.SeededUser> users = jdbc.query("SELECT id, email FROM users WHERE email LIKE 'seed-%' ORDER BY id",
+                (rs, i) -> {
+                    long id = rs.getLong(1);
+                    String email = rs.getString(2);
+                    String token = jwtUtil.generateToken(new UserDetailsImpl(id, email, UserRole.USER, true, 0));
+                    return new Workload.SeededUser(id, email, token);
+                });
+        System.out.printf("Seeded %d users in %d ms%n", users.size(), (System.nanoTime() - start) / 1_000_000);
+        return users;
+    }
+
+    /**
+     * Adds the admin the user listing is requested as and mints its token in-process.
+     */
+    private static String seedAdmin(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        String email = "admin@loadtest.local";
+        Long id = jdbc.queryForObject("INSERT INTO users (name, email, password, role, enabled, token_version) " +
+                "VALUES ('Load Admin', ?, ?, 'ADMIN', true, 0) RETURNING id", Long.class,
+                email, context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        return context.getBean(JwtUtil.class).generateToken(new UserDetailsImpl(id, email, UserRole.ADMIN, true, 0));
+    }
+
+    private static void report(Map<Operation, EndpointStats> stats, double seconds, String csv) throws IOException {
+        String header = String.format("%-32s %8s %9s %8s %9s %9s %9s %9s %9s  %s",
+                "endpoint", "count", "req/s", "err %", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        System.out.println(header);
+
+        List<String> csvLines = new ArrayList<>();
+        csvLines.add("endpoint,count,rps,error_pct,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        long total = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats s = entry.getValue();
+            if (s.count() == 0) {
+                continue;
+            }
+            total += s.count();
+            totalErrors += s.errors();
+            double errorPct = 100.0 * s.errors() / s.count();
+            System.out.printf("%-32s %8d %9.1f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    entry.getKey().label(), s.count(), s.count() / seconds, errorPct,
+                    s.percentileMs(50), s.percentileMs(90), s.percentileMs(99), s.percentileMs(99.9), s.maxMs(),
+                    s.statusSummary());
+            csvLines.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    entry.getKey().label(), s.count(), s.count() / seconds, errorPct,
+                    s.percentileMs(50), s.percentileMs(90), s.percentileMs(99), s.percentileMs(99.9), s.maxMs()));
+        }
+        System.out.printf("%-32s %8d %9.1f %8.2f%n", "total", total, total / seconds,
+                total == 0 ? 0.0 : 100.0 * totalErrors / total);
+
+        if (csv != null) {
+            Path path = Path.of(csv);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+                csvLines.forEach(out::println);
+            }
+            System.out.println("Wrote " + path.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.pm.track.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Harness settings, given as {@code key=value} arguments:
+ *
+ * <pre>
+ * users=2000                  seeded accounts
+ * mode=closed|open            closed: fixed workers back to back; open: fixed arrival rate
+ * concurrency=32              closed-loop workers
+ * rate=200                    open-loop requests per second
+ * warmup=15s duration=60s     warmup is run but not recorded
+ * mix=login:20,me:40,list:25,register:5,forgot:10
+ *                             operations: login, me, list (as an admin), register, forgot
+ * rate-limit=false            keep the production auth token buckets (true) or lift them
+ * profiles=virtual-threads    optional Spring profiles for the application under test
+ * csv=target/loadtest.csv     optional per-endpoint summary file
+ * </pre>
+ *
+ * To compare thread modes, run once without and once with
+ * {@code profiles=virtual-threads} (on a Java 21+ runtime), otherwise with the
+ * same arguments.
+ */
+record LoadTestOptions(int users,
+                       boolean openLoop,
+                       int concurrency,
+                       int rate,
+                       Duration warmup,
+                       Duration duration,
+                       Map<Operation, Integer> mix,
+                       boolean rateLimit,
+                       String profiles,
+                       String csv) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            values.put(arg.substring(0, eq).toLowerCase(Locale.ROOT), arg.substring(eq + 1));
+        }
+
+        String mode = values.getOrDefault("mode", "closed");
+        if (!mode.equals("closed") && !mode.equals("open")) {
+            throw new IllegalArgumentException("mode must be closed or open");
+        }
+
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("users", "2000")),
+                mode.equals("open"),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                parseDuration(values.getOrDefault("warmup", "15s")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", "login:20,me:40,list:25,register:5,forgot:10")),
+                Boolean.parseBoolean(values.getOrDefault("rate-limit", "false")),
+                values.get("profiles"),
+                values.get("csv"));
+    }
+
+    private static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromKey(kv[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix must give at least one operation a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pm.track.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Endpoints the harness drives, each reported separately.
+ */
+enum Operation {
+
+    REGISTER("register", "POST /api/auth/register"),
+    LOGIN("login", "POST /api/auth/login"),
+    ME("me", "GET /api/users/me"),
+    LIST("list", "GET /api/users"),
+    FORGOT_PASSWORD("forgot", "POST /api/auth/forgot-password");
+
+    private final String key;
+    private final String label;
+
+    Operation(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Operation fromKey(String key) {
+        String k = key.toLowerCase(Locale.ROOT);
+        for (Operation operation : values()) {
+            if (operation.key.equals(k)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+}
@@ -0,0 +1,90 @@
+package com.pm.track.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the next operation by weight and builds its request against a random
+ * seeded user. Registrations use fresh addresses so they never collide; the
+ * caller's own user is read with that user's token, while the user listing is
+ * admin-only and sent with the seeded admin's token.
+ */
+final class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final List<SeededUser> users;
+    private final String password;
+    private final String adminToken;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final long runId = System.currentTimeMillis();
+    private final AtomicLong registrations = new AtomicLong();
+
+    Workload(URI baseUri, List<SeededUser> users, String password, String adminToken,
+             Map<Operation, Integer> mix) {
+        this.baseUri = baseUri;
+        this.users = users;
+        this.password = password;
+        this.adminToken = adminToken;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    Operation next() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    HttpRequest request(Operation operation) {
+        SeededUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        return switch (operation) {
+            case REGISTER -> {
+                long n = registrations.incrementAndGet();
+                yield post("/api/auth/register", "{\"name\":\"Load " + n + "\",\"email\":\"load-" + runId + "-" + n
+                        + "@loadtest.local\",\"password\":\"" + password + "\"}");
+            }
+            case LOGIN -> post("/api/auth/login",
+                    "{\"email\":\"" + user.email() + "\",\"password\":\"" + password + "\"}");
+            case FORGOT_PASSWORD -> post("/api/auth/forgot-password", "{\"email\":\"" + user.email() + "\"}");
+            case ME -> get("/api/users/me", user.token());
+            case LIST -> get("/api/users?size=50&after="
+                    + ThreadLocalRandom.current().nextLong(Math.max(1, user.id())), adminToken);
+        };
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    record SeededUser(long id, String email, String token) {
+    }
+}
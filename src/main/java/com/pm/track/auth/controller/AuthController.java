@@ -1,9 +1,13 @@
 package com.pm.track.auth.controller;
 import com.pm.track.auth.dto.ForgotPasswordRequest;
 import com.pm.track.auth.dto.LoginRequest;
+import com.pm.track.auth.dto.RefreshTokenRequest;
 import com.pm.track.auth.dto.ResetPasswordRequest;
 import com.pm.track.auth.dto.SignupRequest;
+import com.pm.track.auth.dto.TokenResponse;
 import com.pm.track.auth.service.PasswordResetService;
+import com.pm.track.auth.service.RefreshTokenService;
+import com.pm.track.auth.service.TokenRevocationService;
 import com.pm.track.user.service.UserService;
 import com.pm.track.user.dto.UserResponse;
 import jakarta.validation.Valid;
@@ -11,8 +15,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -20,6 +22,8 @@ public class AuthController {
 
     private final UserService userService;
     private final PasswordResetService passwordResetService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register")
     public ResponseEntity<UserResponse> register(@Valid @RequestBody SignupRequest request) {
@@ -27,9 +31,21 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String,String>> login(@Valid @RequestBody LoginRequest request) {
-        String jwtToken = userService.loginUser(request);
-        return ResponseEntity.ok(Map.of("token", jwtToken));
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
+        return ResponseEntity.ok(userService.loginUser(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                         @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        tokenRevocationService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok("Logged out");
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
     }
 
 
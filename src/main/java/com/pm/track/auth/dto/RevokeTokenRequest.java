@@ -0,0 +1,12 @@
+package com.pm.track.auth.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RevokeTokenRequest {
+    // The access token to revoke, e.g. one reported as leaked
+    @NotBlank
+    private String token;
+}
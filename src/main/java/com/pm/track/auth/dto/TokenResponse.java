@@ -0,0 +1,21 @@
+package com.pm.track.auth.dto;
+
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenResponse {
+
+    // Short-lived JWT access token
+    private String token;
+
+    // Opaque, single-use; exchange at /api/auth/refresh for a new pair
+    private String refreshToken;
+
+    // Access token lifetime in seconds
+    private long expiresIn;
+}
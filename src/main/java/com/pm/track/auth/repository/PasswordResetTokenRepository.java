@@ -1,21 +1,44 @@
 package com.pm.track.auth.repository;
 
 import com.pm.track.user.entity.PasswordResetToken;
-import com.pm.track.user.entity.User;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
-    Optional<PasswordResetToken> findByToken(String token);
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
 
 
+    // Single statement instead of delete + flush + insert; relies on the unique user_id
     @Modifying
     @Transactional
-    @Query("DELETE FROM PasswordResetToken t WHERE t.user = :user")
-    void deleteByUser(User user);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "password_reset_token"))
+    @Query(value = "INSERT INTO password_reset_token (token, user_id, expiry_date) " +
+            "VALUES (:tokenHash, :userId, :expiryDate) " +
+            "ON CONFLICT (user_id) DO UPDATE SET token = EXCLUDED.token, expiry_date = EXCLUDED.expiry_date",
+            nativeQuery = true)
+    void upsertForUser(Long userId, String tokenHash, LocalDateTime expiryDate);
+
+    // Returns 0 when a concurrent reset consumed the token first
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id = :id")
+    int consume(Long id);
+
+    // Deletes at most :limit expired rows so each purge transaction stays short
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "password_reset_token"))
+    @Query(value = "DELETE FROM password_reset_token WHERE id IN (" +
+            "SELECT id FROM password_reset_token WHERE expiry_date < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
 
 }
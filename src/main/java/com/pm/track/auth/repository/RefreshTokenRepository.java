@@ -0,0 +1,42 @@
+package com.pm.track.auth.repository;
+
+import com.pm.track.user.entity.RefreshToken;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(String tokenHash);
+
+    // Returns 0 if another request already rotated this token
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL")
+    int markUsed(Long id, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int deleteFamily(String familyId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id = :userId")
+    int deleteAllForUser(Long userId);
+
+    // Deletes at most :limit expired rows so each purge transaction stays short
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_token"))
+    @Query(value = "DELETE FROM refresh_token WHERE id IN (" +
+            "SELECT id FROM refresh_token WHERE expiry_date < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
+}
@@ -0,0 +1,38 @@
+package com.pm.track.auth.repository;
+
+import com.pm.track.user.entity.RevokedToken;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    List<RevokedToken> findByRevokedAtAfter(LocalDateTime since);
+
+    // Revoking the same token twice (double logout) is a no-op
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revoked_token"))
+    @Query(value = "INSERT INTO revoked_token (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :revokedAt) " +
+            "ON CONFLICT (jti) DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(String jti, LocalDateTime expiresAt, LocalDateTime revokedAt);
+
+    // Deletes at most :limit expired rows so each purge transaction stays short
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revoked_token"))
+    @Query(value = "DELETE FROM revoked_token WHERE id IN (" +
+            "SELECT id FROM revoked_token WHERE expires_at < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
+}
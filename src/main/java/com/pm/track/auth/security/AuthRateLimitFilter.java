@@ -0,0 +1,187 @@
+package com.pm.track.auth.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.track.exception.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Token-bucket throttling for the credential and mail-sending endpoints of
+ * AuthController, keyed by client IP and by the email in the request body.
+ * Rejected requests get 429 with Retry-After through GlobalExceptionHandler.
+ *
+ * <p>The client IP is {@code getRemoteAddr()}, which is the real client only
+ * because {@code server.forward-headers-strategy=native} makes Tomcat take it
+ * from X-Forwarded-For when the request comes through a trusted proxy
+ * ({@code server.tomcat.remoteip.internal-proxies}).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/login", "/api/auth/register", "/api/auth/forgot-password");
+
+    // Bodies of these endpoints are tiny; anything larger is left for the controller to reject
+    private static final int MAX_INSPECTED_BODY = 16 * 1024;
+
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter emailLimiter;
+    private final ObjectMapper objectMapper;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper,
+                               @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.rate-limit.ip.capacity:20}") int ipCapacity,
+                               @Value("${security.rate-limit.ip.refill-per-minute:20}") int ipRefill,
+                               @Value("${security.rate-limit.email.capacity:5}") int emailCapacity,
+                               @Value("${security.rate-limit.email.refill-per-minute:5}") int emailRefill,
+                               @Value("${security.rate-limit.idle-expiry:10m}") Duration idleExpiry,
+                               @Value("${security.rate-limit.max-keys:100000}") long maxKeys) {
+        this.objectMapper = objectMapper;
+        this.exceptionResolver = exceptionResolver;
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefill, idleExpiry, maxKeys);
+        this.emailLimiter = new TokenBucketRateLimiter(emailCapacity, emailRefill, idleExpiry, maxKeys);
+        this.ipRejections = meterRegistry.counter("auth.rate-limit.rejected", "key", "ip");
+        this.emailRejections = meterRegistry.counter("auth.rate-limit.rejected", "key", "email");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String endpoint = request.getServletPath();
+        long waitMs = ipLimiter.tryAcquire(endpoint + '|' + request.getRemoteAddr());
+        if (waitMs > 0) {
+            ipRejections.increment();
+            reject(request, response, waitMs);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_INSPECTED_BODY + 1);
+        String email = body.length <= MAX_INSPECTED_BODY ? extractEmail(body) : null;
+        if (email != null) {
+            waitMs = emailLimiter.tryAcquire(endpoint + '|' + email);
+            if (waitMs > 0) {
+                emailRejections.increment();
+                reject(request, response, waitMs);
+                return;
+            }
+        }
+
+        chain.doFilter(new ReplayedBodyRequest(request, body, body.length <= MAX_INSPECTED_BODY), response);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null; // malformed JSON is rejected by the controller
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitMs) {
+        long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+        exceptionResolver.resolveException(request, response, null,
+                new RetryLaterException("Too many requests, please retry later", HttpStatus.TOO_MANY_REQUESTS,
+                        retryAfterSeconds));
+    }
+
+    /**
+     * Replays the bytes the filter already read, followed by whatever is left
+     * of the original body.
+     */
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        /**
+         * @param complete whether {@code consumed} is the whole body, i.e. the original stream is at its end
+         */
+        ReplayedBodyRequest(HttpServletRequest request, byte[] consumed, boolean complete) throws IOException {
+            super(request);
+            ServletInputStream original = request.getInputStream();
+            ByteArrayInputStream buffered = new ByteArrayInputStream(consumed);
+            InputStream in = new SequenceInputStream(buffered, original);
+            this.body = new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = in.read(b, off, len);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return complete || buffered.available() > 0 || original.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (!complete) {
+                        // The rest is still on the wire; the container signals when it arrives
+                        original.setReadListener(listener);
+                        return;
+                    }
+                    // The whole body is in memory, so all of it is available now
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,47 +1,156 @@
 package com.pm.track.auth.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pm.track.common.enums.UserRole;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
 
-    @Value("${jwt.expirationMs}")
-    private long expirationMs;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final long expirationMs;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // SHA-256 of the compact token -> verified claims; entries expire with the token itself
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expirationMs:900000}") long expirationMs,
+                   @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize) {
+        this.expirationMs = expirationMs;
+        // Same base64 decoding the String-keyed signWith/setSigningKey overloads applied
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
+    }
 
-    public String generateToken(String username) {
+    /**
+     * Access token lifetime; clients renew through /api/auth/refresh.
+     */
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    public String generateToken(UserDetailsImpl user) {
         return Jwts.builder()
-                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_ENABLED, user.isEnabled())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Parses and verifies the token once and returns its claims. Tokens verified
+     * recently are served from cache without repeating the signature check.
+     * The returned claims are shared and must not be modified.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims verify(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Builds a principal from the identity claims embedded by {@link #generateToken},
+     * or returns null for tokens issued without them.
+     */
+    public UserDetailsImpl toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new UserDetailsImpl(
+                userId,
+                claims.getSubject(),
+                UserRole.valueOf(role),
+                Boolean.TRUE.equals(claims.get(CLAIM_ENABLED, Boolean.class)),
+                tokenVersion(claims));
+    }
+
+    public int tokenVersion(Claims claims) {
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return version != null ? version : 0;
+    }
+
     public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            getClaims(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody();
+    private static final class ClaimsExpiry implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.pm.track.auth.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks sign-in credentials like Spring's DaoAuthenticationProvider (lookup
+ * through UserDetailsServiceImpl, account status checks, rehash of outdated
+ * hashes), except that only the hash computations run on the
+ * PasswordHashingExecutor. The user lookup and the rehash write stay on the
+ * calling thread, so hashing-pool threads never wait on the database.
+ */
+@Component
+public class LoginAuthenticator {
+
+    private final DaoAuthenticationProvider provider;
+
+    public LoginAuthenticator(UserDetailsServiceImpl userDetailsService,
+                              PasswordEncoder passwordEncoder,
+                              PasswordHashingExecutor hashingExecutor) {
+        this.provider = new DaoAuthenticationProvider(new PooledPasswordEncoder(passwordEncoder, hashingExecutor));
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+    }
+
+    /**
+     * @throws org.springframework.security.core.AuthenticationException on a wrong password,
+     *         unknown email (reported the same way) or disabled account
+     */
+    public Authentication authenticate(String email, String password) {
+        return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(email, password));
+    }
+
+    private record PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor)
+            implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return hashingExecutor.execute("encode", () -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return hashingExecutor.execute("verify", () -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        // Only parses the stored hash's prefix and cost
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.pm.track.auth.security;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * Enables {@code @PreAuthorize} checks, e.g. on the admin endpoints.
+ */
+@Configuration
+@EnableMethodSecurity
+public class MethodSecurityConfig {
+}
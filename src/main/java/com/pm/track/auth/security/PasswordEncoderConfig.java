@@ -0,0 +1,62 @@
+package com.pm.track.auth.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * New hashes use the configured algorithm and cost and are stored with an
+     * "{id}" prefix. Hashes from before the prefix existed are plain bcrypt.
+     * Any hash off the current target (another algorithm, or a bcrypt cost
+     * above or below the configured one) reports upgradeEncoding() and is
+     * rewritten on the next successful login (see UserDetailsServiceImpl).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.encoder:bcrypt}") String encoderId,
+                                           @Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", new ExactCostBCryptPasswordEncoder(bcryptStrength),
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * BCryptPasswordEncoder only upgrades hashes below its strength, so lowering
+     * the strength would never migrate existing hashes; this one also rehashes
+     * those above it.
+     */
+    private static final class ExactCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+        private final int strength;
+
+        private ExactCostBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            Matcher matcher = COST.matcher(encodedPassword == null ? "" : encodedPassword);
+            if (!matcher.find()) {
+                return super.upgradeEncoding(encodedPassword); // reports the missing or malformed hash
+            }
+            return Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.pm.track.auth.security;
+
+import com.pm.track.exception.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt hashing and verification on a dedicated, core-sized pool with a
+ * bounded queue, so a login storm cannot occupy every request thread. When the
+ * queue is full the caller is rejected immediately with 503 and Retry-After.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final ObservationRegistry observationRegistry;
+    private final Counter rejected;
+    private final Timer queued;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   ObservationRegistry observationRegistry,
+                                   @Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity,
+                                   @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = Math.max(retryAfter.toSeconds(), 1);
+        this.observationRegistry = observationRegistry;
+        this.rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        this.queued = Timer.builder("auth.password.hashing.queued")
+                .description("Time hashing tasks wait for a pool thread")
+                .register(meterRegistry);
+
+        // Queue depth, active threads and completed tasks under "executor.*" with name=password-hashing
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for its result. Runtime
+     * exceptions thrown by the task (e.g. {@code BadCredentialsException}) are
+     * rethrown unchanged on the calling thread.
+     *
+     * @param operation metric tag, e.g. "encode" or "verify"
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        // Timed as "auth.password.hashing"; the span is parented to the request's even though it runs on the pool
+        Observation observation = Observation.createNotStarted("auth.password.hashing", observationRegistry)
+                .contextualName("password " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .parentObservation(observationRegistry.getCurrentObservation());
+        long submitted = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queued.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return observation.observe(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RetryLaterException("Server is busy, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
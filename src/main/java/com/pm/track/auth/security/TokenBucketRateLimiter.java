@@ -0,0 +1,76 @@
+package com.pm.track.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets with lock-free acquisition. Each bucket packs its
+ * last-refill time and remaining milli-tokens into one AtomicLong updated by
+ * CAS, so acquiring allocates nothing. Idle buckets expire, and the total
+ * number of tracked keys is capped.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+    private final LongSupplier clock;
+    private final long epochMs;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, Duration idleExpiry, long maxKeys) {
+        this(capacity, refillPerMinute, idleExpiry, maxKeys, System::currentTimeMillis);
+    }
+
+    TokenBucketRateLimiter(int capacity, int refillPerMinute, Duration idleExpiry, long maxKeys, LongSupplier clock) {
+        if (capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("Bucket capacity too large: " + capacity);
+        }
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerMinute * MILLI / 60_000.0;
+        this.clock = clock;
+        this.epochMs = clock.getAsLong();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 if allowed, otherwise the number
+     * of milliseconds until a token will be available.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(pack(now(), capacityMilli)));
+
+        while (true) {
+            long state = bucket.get();
+            long now = now();
+            long last = state >>> TOKEN_BITS;
+            long tokens = state & TOKEN_MASK;
+
+            long refilled = Math.min(capacityMilli, tokens + (long) (Math.max(0, now - last) * refillMilliPerMs));
+            if (refilled < MILLI) {
+                return (long) Math.ceil((MILLI - refilled) / refillMilliPerMs);
+            }
+            if (bucket.compareAndSet(state, pack(now, refilled - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    private long now() {
+        return clock.getAsLong() - epochMs;
+    }
+
+    private static long pack(long time, long milliTokens) {
+        return (time << TOKEN_BITS) | milliTokens;
+    }
+}
@@ -0,0 +1,164 @@
+package com.pm.track.auth.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Revoked token ids (jti), grouped into buckets by the token's expiry time.
+ * A ring of buckets covers one access-token lifetime; a slot is reused once
+ * every token in its old bucket has expired, so expired entries are dropped
+ * wholesale instead of one by one. Each bucket keeps a Bloom filter in front
+ * of its exact set: checking a token probes only the bucket its expiry falls
+ * in, and the usual not-revoked answer costs a few bit reads and no allocation.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final int PROBES = 4;
+
+    private final LongSupplier clock;
+    private final long bucketMs;
+    private final int bloomBits;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    // Tokens expiring beyond the ring's horizon, e.g. issued under a longer jwt.expirationMs
+    private final Map<String, Long> overflow = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenDenylist(@Value("${jwt.expirationMs:900000}") long accessTokenTtlMs,
+                         @Value("${security.jwt.denylist.bucket:1m}") Duration bucket,
+                         @Value("${security.jwt.denylist.bloom-bits:65536}") int bloomBits) {
+        this(accessTokenTtlMs, bucket, bloomBits, System::currentTimeMillis);
+    }
+
+    TokenDenylist(long accessTokenTtlMs, Duration bucket, int bloomBits, LongSupplier clock) {
+        this.clock = clock;
+        this.bucketMs = bucket.toMillis();
+        this.bloomBits = Math.max(Integer.highestOneBit(bloomBits - 1) << 1, 64); // power of two for masking
+        this.ring = new AtomicReferenceArray<>((int) (accessTokenTtlMs / bucketMs) + 2);
+    }
+
+    /**
+     * @param expiresAtMs the token's expiry (epoch millis); the entry is kept until then
+     */
+    public void revoke(String jti, long expiresAtMs) {
+        long now = clock.getAsLong();
+        if (expiresAtMs <= now) {
+            return;
+        }
+        long index = expiresAtMs / bucketMs;
+        if (index - now / bucketMs >= ring.length()) {
+            overflow.put(jti, expiresAtMs);
+            return;
+        }
+
+        int slot = (int) (index % ring.length());
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.index != index) {
+            // Any other index in this slot belongs to an older window whose tokens have all expired
+            Bucket fresh = new Bucket(index, bloomBits);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = ring.get(slot);
+            }
+        }
+        bucket.add(jti);
+    }
+
+    /**
+     * True if the token's jti was revoked. Tokens without a jti or expiry cannot be revoked.
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        // Raw claim rather than getExpiration(), which allocates a Date per call
+        Object exp = claims.get(Claims.EXPIRATION);
+        if (jti == null || !(exp instanceof Number seconds)) {
+            return false;
+        }
+        return isRevoked(jti, seconds.longValue() * 1000);
+    }
+
+    public boolean isRevoked(String jti, long expiresAtMs) {
+        long index = expiresAtMs / bucketMs;
+        Bucket bucket = ring.get((int) (index % ring.length()));
+        if (bucket != null && bucket.index == index && bucket.mightContain(jti) && bucket.jtis.contains(jti)) {
+            return true;
+        }
+        return !overflow.isEmpty() && overflow.containsKey(jti);
+    }
+
+    /**
+     * Releases buckets and overflow entries whose tokens have all expired.
+     */
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        long currentIndex = now / bucketMs;
+        for (int slot = 0; slot < ring.length(); slot++) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.index < currentIndex) {
+                ring.compareAndSet(slot, bucket, null);
+            }
+        }
+        overflow.values().removeIf(expiresAtMs -> expiresAtMs <= now);
+    }
+
+    private static final class Bucket {
+
+        private final long index;
+        private final AtomicLongArray bits;
+        private final int mask;
+        private final Set<String> jtis = ConcurrentHashMap.newKeySet();
+
+        Bucket(long index, int bloomBits) {
+            this.index = index;
+            this.bits = new AtomicLongArray(bloomBits / 64);
+            this.mask = bloomBits - 1;
+        }
+
+        void add(String jti) {
+            // Exact set first so a concurrent reader that sees the bits also finds the id
+            jtis.add(jti);
+            long hash = mix(jti.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long word;
+                do {
+                    word = bits.get(bit >>> 6);
+                } while (!bits.compareAndSet(bit >>> 6, word, word | (1L << bit)));
+            }
+        }
+
+        boolean mightContain(String jti) {
+            long hash = mix(jti.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit finalizer from SplitMix64, spreading the cached String hash over two probe seeds
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
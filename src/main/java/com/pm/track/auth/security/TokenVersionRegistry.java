@@ -0,0 +1,84 @@
+package com.pm.track.auth.security;
+
+import com.pm.track.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of per-user token versions used by stateless authentication.
+ * Only users whose version was ever bumped are held; everyone else is at 0.
+ * Bumps made on other nodes are picked up by polling
+ * {@code users.token_version_changed_at}; the same poll drops those users
+ * from this node's {@link UserPrincipalCache}, which the database-backed mode
+ * checks tokens against.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    // Re-read changes this far back on every sync so transactions committing late or skewed clocks are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Value("${security.jwt.stateless:false}")
+    private boolean statelessAuth;
+
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    void load() {
+        lastSync = LocalDateTime.now();
+        if (!statelessAuth) {
+            return;
+        }
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            versions.merge((Long) row[0], (Integer) row[1], Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.token-version.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : userRepository.findTokenVersionsChangedSince(lastSync.minus(SYNC_OVERLAP))) {
+            if (statelessAuth) {
+                versions.merge((Long) row[0], (Integer) row[2], Math::max);
+            }
+            principalCache.invalidate((String) row[1]);
+        }
+        lastSync = now;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Records a new version for the user. Inside a transaction the update is
+     * applied after commit so a rollback cannot strand the user's tokens.
+     */
+    public void bump(Long userId, int newVersion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.merge(userId, newVersion, Math::max);
+                }
+            });
+        } else {
+            versions.merge(userId, newVersion, Math::max);
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class UserDetailsImpl implements UserDetails {
     private final String password;
     private final UserRole role;
     private final boolean enabled;
+    private final int tokenVersion;
 
     public UserDetailsImpl(User user) {
         this.id = user.getId();
@@ -23,6 +24,23 @@ public class UserDetailsImpl implements UserDetails {
         this.password = user.getPassword();
         this.role = user.getRole();
         this.enabled = user.isEnabled();
+        this.tokenVersion = user.getTokenVersion();
+    }
+
+    public UserDetailsImpl(Long id, String email, String password, UserRole role, boolean enabled, int tokenVersion) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.enabled = enabled;
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * Principal rebuilt from verified JWT claims; carries no password hash.
+     */
+    public UserDetailsImpl(Long id, String email, UserRole role, boolean enabled, int tokenVersion) {
+        this(id, email, null, role, enabled, tokenVersion);
     }
 
     @Override
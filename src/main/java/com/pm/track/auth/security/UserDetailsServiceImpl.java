@@ -3,27 +3,41 @@ package com.pm.track.auth.security;
 import com.pm.track.user.entity.User;
 import com.pm.track.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
-
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
+    /**
+     * Always reads the database: another node may have changed the password,
+     * disabled the user or bumped tokenVersion since this node cached the user.
+     * Read-write, so the read goes to the primary and never to a lagging
+     * replica whose copy would then be cached as the principal.
+     */
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        return userRepository.findFreshByEmail(email)
+                .map(UserDetailsImpl::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
 
-        List<SimpleGrantedAuthority> authorities = List.of(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-        );
-
-        return new UserDetailsImpl(user);
+    /**
+     * Called by DaoAuthenticationProvider after a successful login whose stored
+     * hash uses an outdated algorithm or cost; stores the rehashed password.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // Entity update rather than a bulk UPDATE, which would evict every cached user
+        User entity = userRepository.findFreshByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        return new UserDetailsImpl(entity);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.pm.track.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by email.
+ * Concurrent misses for the same email share a single load, so a burst of
+ * requests for one user costs one {@code findByEmail} query.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, UserDetailsImpl> cache;
+
+    public UserPrincipalCache(UserDetailsServiceImpl userDetailsService,
+                              MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${security.principal-cache.ttl:5m}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Exposes hit/miss ratio, load duration and eviction counts under "cache.*" with cache=principals
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public UserDetailsImpl get(String email) {
+        return cache.get(email, key -> (UserDetailsImpl) userDetailsService.loadUserByUsername(key));
+    }
+
+    /**
+     * Drops the cached principal. When called inside a transaction the entry is
+     * dropped again after commit, so a concurrent request cannot re-cache the
+     * pre-commit row.
+     */
+    public void invalidate(String email) {
+        cache.invalidate(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
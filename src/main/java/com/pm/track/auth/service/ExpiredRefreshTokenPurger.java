@@ -0,0 +1,40 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes expired refresh tokens (used ones included) in bounded chunks,
+ * like {@link ExpiredResetTokenPurger}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiredRefreshTokenPurger {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-token.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge.interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(now, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+}
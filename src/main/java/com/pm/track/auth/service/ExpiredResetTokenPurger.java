@@ -0,0 +1,40 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.repository.PasswordResetTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes expired password reset tokens in bounded chunks, one short
+ * transaction per chunk, so the purge never holds long locks.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiredResetTokenPurger {
+
+    private final PasswordResetTokenRepository tokenRepository;
+
+    @Value("${password-reset.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${password-reset.purge.interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = tokenRepository.deleteExpired(now, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired password reset tokens", total);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes revocation rows once their tokens have expired, in bounded chunks
+ * like {@link ExpiredResetTokenPurger}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiredRevokedTokenPurger {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${security.jwt.denylist.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.purge.interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = revokedTokenRepository.deleteExpired(now, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired token revocations", total);
+        }
+    }
+}
@@ -1,71 +1,88 @@
 package com.pm.track.auth.service;
 
-import com.pm.track.user.entity.PasswordResetToken;
+import com.pm.track.auth.security.PasswordHashingExecutor;
+import com.pm.track.auth.security.TokenVersionRegistry;
+import com.pm.track.auth.security.UserPrincipalCache;
 import com.pm.track.user.entity.User;
 import com.pm.track.exception.CustomException;
 import com.pm.track.auth.repository.PasswordResetTokenRepository;
 import com.pm.track.user.repository.UserRepository;
 import com.pm.track.common.EmailService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class PasswordResetService {
 
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository tokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final UserPrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final TransactionTemplate transactionTemplate;
 
-    // 1. Generate token and save to DB
+    // 1. Generate token and save its hash to DB
+    @Transactional
     public void createPasswordResetToken(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        // Cleanup any existing token
-        tokenRepository.deleteByUser(user);
-        tokenRepository.flush();
+        String token = OpaqueTokens.generate();
 
-        String token = UUID.randomUUID().toString();
-
-        PasswordResetToken resetToken = new PasswordResetToken();
-        resetToken.setToken(token);
-        resetToken.setUser(user);
-        resetToken.setExpiryDate(LocalDateTime.now().plusMinutes(15));
-
-        tokenRepository.save(resetToken);
+        // Replaces any previous token for this user
+        tokenRepository.upsertForUser(user.getId(), OpaqueTokens.hash(token), LocalDateTime.now().plusMinutes(15));
 
         emailService.sendPasswordResetEmail(email, token);
     }
 
+    /**
+     * Not one transaction, so no connection or row lock is held while hashing:
+     * the token is checked in a short transaction, the password hashed with none
+     * open, and the token consumed and the password written in a second one.
+     */
     public void resetPassword(String token, String newPassword) {
-        PasswordResetToken resetToken = tokenRepository.findByToken(token)
-                .orElseThrow(() -> new CustomException("Invalid password reset token", HttpStatus.BAD_REQUEST));
+        // Read-write, so a token issued moments ago is looked up on the primary
+        ResetTarget target = transactionTemplate.execute(status -> Optional.ofNullable(token)
+                .flatMap(t -> tokenRepository.findByTokenHash(OpaqueTokens.hash(t)))
+                .map(t -> new ResetTarget(t.getId(), t.getUser().getId(), t.getExpiryDate()))
+                .orElse(null));
+        if (target == null) {
+            throw new CustomException("Invalid password reset token", HttpStatus.BAD_REQUEST);
+        }
 
-        if (resetToken.getExpiryDate().isBefore(LocalDateTime.now())) {
-            tokenRepository.delete(resetToken); // Prevent reuse
+        if (target.expiryDate().isBefore(LocalDateTime.now())) {
+            tokenRepository.consume(target.tokenId()); // Prevent reuse
             throw new CustomException("Token has expired. Please request a new one.", HttpStatus.BAD_REQUEST);
         }
 
-        User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
-
-        tokenRepository.delete(resetToken);
+        String newHash = hashingExecutor.execute("encode", () -> passwordEncoder.encode(newPassword));
+
+        User user = transactionTemplate.execute(status -> {
+            // A concurrent reset with the same token consumed it while we were hashing
+            if (tokenRepository.consume(target.tokenId()) == 0) {
+                throw new CustomException("Invalid password reset token", HttpStatus.BAD_REQUEST);
+            }
+            User u = userRepository.findById(target.userId())
+                    .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+            u.setPassword(newHash);
+            u.bumpTokenVersion();
+            return userRepository.save(u);
+        });
+        principalCache.invalidate(user.getEmail());
+        tokenVersions.bump(user.getId(), user.getTokenVersion());
     }
 
-
-
-
-
-
+    private record ResetTarget(Long tokenId, Long userId, LocalDateTime expiryDate) {
+    }
 }
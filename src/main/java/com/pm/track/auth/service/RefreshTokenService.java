@@ -0,0 +1,125 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.dto.TokenResponse;
+import com.pm.track.auth.repository.RefreshTokenRepository;
+import com.pm.track.auth.security.JwtUtil;
+import com.pm.track.auth.security.UserDetailsImpl;
+import com.pm.track.exception.CustomException;
+import com.pm.track.user.entity.RefreshToken;
+import com.pm.track.user.entity.User;
+import com.pm.track.user.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Issues access/refresh token pairs. Refresh tokens are opaque, stored as
+ * SHA-256 hashes and single-use: each refresh marks the presented token used
+ * and hands out a new one from the same family. Presenting a used token again
+ * revokes the whole family, so a stolen token stops working for both parties.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final Duration refreshTtl;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtUtil jwtUtil,
+                               @Value("${jwt.refresh-token.ttl:14d}") Duration refreshTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.refreshTtl = refreshTtl;
+    }
+
+    /**
+     * Starts a new token family for a user who just signed in.
+     */
+    @Transactional
+    public TokenResponse issue(UserDetailsImpl user) {
+        String refreshToken = store(userRepository.getReferenceById(user.getId()), UUID.randomUUID().toString(),
+                user.getTokenVersion());
+        return tokens(jwtUtil.generateToken(user), refreshToken);
+    }
+
+    /**
+     * Rotates the refresh token and mints a new access token; no password
+     * hashing involved. Revocations must survive the 401, hence dontRollbackOn.
+     */
+    @Transactional(dontRollbackOn = CustomException.class)
+    public TokenResponse refresh(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findWithUserByTokenHash(OpaqueTokens.hash(rawToken))
+                .orElseThrow(() -> new CustomException("Invalid refresh token", HttpStatus.UNAUTHORIZED));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getUsedAt() != null) {
+            revokeFamily(token, "reused");
+            throw new CustomException("Refresh token already used; please sign in again", HttpStatus.UNAUTHORIZED);
+        }
+        if (token.getExpiryDate().isBefore(now)) {
+            refreshTokenRepository.delete(token);
+            throw new CustomException("Refresh token has expired; please sign in again", HttpStatus.UNAUTHORIZED);
+        }
+
+        User user = token.getUser();
+        if (!user.isEnabled() || user.getTokenVersion() != token.getTokenVersion()) {
+            revokeFamily(token, "revoked by password change or account disable");
+            throw new CustomException("Refresh token revoked; please sign in again", HttpStatus.UNAUTHORIZED);
+        }
+
+        // A concurrent request rotated it first: same as reuse
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            revokeFamily(token, "reused concurrently");
+            throw new CustomException("Refresh token already used; please sign in again", HttpStatus.UNAUTHORIZED);
+        }
+
+        String refreshToken = store(user, token.getFamilyId(), user.getTokenVersion());
+        return tokens(jwtUtil.generateToken(new UserDetailsImpl(user)), refreshToken);
+    }
+
+    /**
+     * Logout: drops the family the token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findWithUserByTokenHash(OpaqueTokens.hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.deleteFamily(token.getFamilyId()));
+    }
+
+    private String store(User user, String familyId, int tokenVersion) {
+        String raw = OpaqueTokens.generate();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(OpaqueTokens.hash(raw))
+                .user(user)
+                .familyId(familyId)
+                .tokenVersion(tokenVersion)
+                .expiryDate(LocalDateTime.now().plus(refreshTtl))
+                .build());
+        return raw;
+    }
+
+    private void revokeFamily(RefreshToken token, String reason) {
+        int deleted = refreshTokenRepository.deleteFamily(token.getFamilyId());
+        log.warn("Refresh token family {} of user {} revoked ({}), {} tokens removed",
+                token.getFamilyId(), token.getUser().getId(), reason, deleted);
+    }
+
+    private TokenResponse tokens(String accessToken, String refreshToken) {
+        return TokenResponse.builder()
+                .token(accessToken)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtUtil.getExpirationMs() / 1000)
+                .build();
+    }
+}
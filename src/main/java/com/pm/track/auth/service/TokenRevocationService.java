@@ -0,0 +1,128 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.repository.RefreshTokenRepository;
+import com.pm.track.auth.repository.RevokedTokenRepository;
+import com.pm.track.auth.security.JwtUtil;
+import com.pm.track.auth.security.TokenDenylist;
+import com.pm.track.auth.security.TokenVersionRegistry;
+import com.pm.track.auth.security.UserPrincipalCache;
+import com.pm.track.exception.CustomException;
+import com.pm.track.user.entity.RevokedToken;
+import com.pm.track.user.entity.User;
+import com.pm.track.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+
+/**
+ * Logout and admin revocation. Single access tokens are revoked by jti: the
+ * row is written to revoked_token and every node mirrors new rows into its
+ * TokenDenylist, so the per-request check never touches the database. All of
+ * a user's tokens are revoked at once by bumping their token version, which
+ * other nodes pick up through TokenVersionRegistry's sync.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    // Re-read rows this far back on every sync so transactions committing late or skewed clocks are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenDenylist denylist;
+    private final UserPrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersions;
+
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    void load() {
+        lastSync = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(lastSync).forEach(this::mirror);
+    }
+
+    /**
+     * Revokes the presented access token and, if given, the refresh token's
+     * family. Tokens that are already invalid or expired are ignored.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                revoke(jwtUtil.verify(accessToken));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Nothing left to revoke
+            }
+        }
+        if (refreshToken != null) {
+            refreshTokenService.revokeFamily(refreshToken);
+        }
+    }
+
+    public void revokeAccessToken(String accessToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.verify(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new CustomException("Invalid or expired token", HttpStatus.BAD_REQUEST);
+        }
+        if (claims.getId() == null) {
+            throw new CustomException("Token has no id; revoke the user's tokens instead", HttpStatus.BAD_REQUEST);
+        }
+        revoke(claims);
+    }
+
+    /**
+     * Invalidates every access and refresh token the user holds: at once on
+     * this node, on the others within security.jwt.token-version.sync-interval-ms.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+
+        user.bumpTokenVersion();
+        userRepository.save(user);
+        refreshTokenRepository.deleteAllForUser(userId);
+        principalCache.invalidate(user.getEmail());
+        tokenVersions.bump(user.getId(), user.getTokenVersion());
+        log.info("Revoked all tokens of user {}", userId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByRevokedAtAfter(lastSync.minus(SYNC_OVERLAP)).forEach(this::mirror);
+        lastSync = now;
+        denylist.evictExpired();
+    }
+
+    private void revoke(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return; // issued before tokens carried an id; expires on its own
+        }
+        long expiresAtMs = claims.getExpiration().getTime();
+        revokedTokenRepository.insertIfAbsent(claims.getId(), toLocal(expiresAtMs), LocalDateTime.now());
+        denylist.revoke(claims.getId(), expiresAtMs);
+    }
+
+    private void mirror(RevokedToken token) {
+        denylist.revoke(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static LocalDateTime toLocal(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
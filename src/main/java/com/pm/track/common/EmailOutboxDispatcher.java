@@ -0,0 +1,151 @@
+package com.pm.track.common;
+
+import com.pm.track.common.entity.EmailOutboxMessage;
+import com.pm.track.common.enums.OutboxStatus;
+import com.pm.track.common.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox. Each cycle claims due rows in batches with
+ * {@code FOR UPDATE SKIP LOCKED}, pushes their next attempt past a lease so
+ * other nodes skip them while they are being sent, then deletes delivered rows
+ * or reschedules failed ones with exponential backoff. Rows that run out of
+ * attempts are kept as FAILED, without their argument, until FailedEmailPurger
+ * removes them. A node that dies mid-batch leaves its rows to be picked up
+ * again once the lease runs out.
+ *
+ * <p>Sends are synchronous on a scheduling thread; the SMTP timeouts bound
+ * each one, and {@code spring.task.scheduling.pool.size} keeps the other
+ * scheduled jobs running while this one waits on the mail server.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer lag;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 EmailService emailService,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${email.outbox.lease:2m}") Duration lease,
+                                 @Value("${email.outbox.initial-backoff:10s}") Duration initialBackoff,
+                                 @Value("${email.outbox.max-backoff:1h}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+                .description("Messages waiting in the outbox")
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("email.outbox.dispatched", "result", "sent");
+        this.retried = meterRegistry.counter("email.outbox.dispatched", "result", "retried");
+        this.failed = meterRegistry.counter("email.outbox.dispatched", "result", "failed");
+        this.lag = Timer.builder("email.outbox.lag")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+
+        pending.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> due = outboxRepository.claimDue(now, batchSize);
+            for (EmailOutboxMessage message : due) {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setAvailableAt(now.plus(lease));
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutboxMessage> batch) {
+        Map<Long, Exception> failures = emailService.deliverAll(batch);
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutboxMessage message : batch) {
+            Exception failure = failures.get(message.getId());
+            if (failure == null) {
+                delivered.add(message.getId());
+                lag.record(Duration.between(message.getCreatedAt(), now));
+            } else {
+                reschedule(message, failure);
+            }
+        }
+
+        outboxRepository.deleteAllByIdInBatch(delivered);
+        sent.increment(delivered.size());
+    }
+
+    private void reschedule(EmailOutboxMessage message, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        message.setLastError(error.length() > 255 ? error.substring(0, 255) : error);
+        if (message.getAttempts() >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+            message.setArgument(null); // may be a raw reset token; the row is kept only for diagnosis
+            failed.increment();
+            log.error("Giving up on outbox email {} to {} after {} attempts",
+                    message.getId(), message.getRecipient(), message.getAttempts(), e);
+        } else {
+            message.setAvailableAt(LocalDateTime.now().plus(backoff(message.getAttempts())));
+            retried.increment();
+            log.warn("Outbox email {} failed (attempt {}), will retry: {}",
+                    message.getId(), message.getAttempts(), e.getMessage());
+        }
+        outboxRepository.save(message);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,160 @@
+package com.pm.track.common;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email body compiled once into pre-encoded UTF-8 fragments separated by
+ * {@code {{slot}}} placeholders. Rendering copies the fragments into a
+ * per-thread buffer and encodes only the slot values, HTML-escaping them for
+ * HTML templates.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private static final ThreadLocal<RenderBuffer> BUFFER = ThreadLocal.withInitial(RenderBuffer::new);
+
+    private final byte[][] fragments;
+    private final String[] slots;
+    private final boolean html;
+
+    private EmailTemplate(byte[][] fragments, String[] slots, boolean html) {
+        this.fragments = fragments;
+        this.slots = slots;
+        this.html = html;
+    }
+
+    public static EmailTemplate load(String classpathLocation, boolean html) {
+        try (InputStream in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8), html);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load email template " + classpathLocation, e);
+        }
+    }
+
+    public static EmailTemplate compile(String source, boolean html) {
+        List<byte[]> fragments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder at offset " + open);
+            }
+            fragments.add(source.substring(from, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(source.substring(open + OPEN.length(), close).trim());
+            from = close + CLOSE.length();
+        }
+        fragments.add(source.substring(from).getBytes(StandardCharsets.UTF_8));
+
+        return new EmailTemplate(fragments.toArray(byte[][]::new), slots.toArray(String[]::new), html);
+    }
+
+    /**
+     * Renders the template into an exact-size UTF-8 byte array. Missing slot
+     * values render as empty.
+     */
+    public byte[] render(Map<String, String> values) {
+        RenderBuffer buffer = BUFFER.get();
+        buffer.reset();
+
+        for (int i = 0; i < slots.length; i++) {
+            buffer.write(fragments[i]);
+            String value = values.get(slots[i]);
+            if (value != null) {
+                buffer.writeText(value, html);
+            }
+        }
+        buffer.write(fragments[slots.length]);
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Growable byte buffer reused across renders on the same thread.
+     */
+    private static final class RenderBuffer {
+
+        private byte[] bytes = new byte[8192];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void write(byte[] fragment) {
+            ensureCapacity(fragment.length);
+            System.arraycopy(fragment, 0, bytes, length, fragment.length);
+            length += fragment.length;
+        }
+
+        void writeText(String value, boolean escapeHtml) {
+            ensureCapacity(value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (escapeHtml && writeEntity(c)) {
+                    continue;
+                }
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (cp >> 18));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private boolean writeEntity(char c) {
+            String entity = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity == null) {
+                return false;
+            }
+            for (int i = 0; i < entity.length(); i++) {
+                bytes[length++] = (byte) entity.charAt(i);
+            }
+            return true;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.pm.track.common;
+
+import com.pm.track.common.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Removes outbox emails the dispatcher gave up on once they are older than the
+ * retention, in bounded chunks with one short transaction each. Delivered
+ * emails are already deleted by the dispatcher.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedEmailPurger {
+
+    private final EmailOutboxRepository outboxRepository;
+
+    @Value("${email.outbox.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${email.outbox.purge.failed-retention:7d}")
+    private Duration failedRetention;
+
+    @Scheduled(fixedDelayString = "${email.outbox.purge.interval-ms:3600000}")
+    public void purgeFailed() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(failedRetention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = outboxRepository.deleteFailedBefore(cutoff, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} failed outbox emails", total);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.pm.track.common;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps lazy initialization (fast-startup profile) from postponing
+ * background work: a lazy bean's {@code @Scheduled} methods are only
+ * registered once something asks for the bean, which for purgers and the
+ * outbox dispatcher is never. The same goes for VirtualThreadPinningMonitor,
+ * which nothing depends on and which starts its JFR stream when constructed.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansAreEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+    }
+
+    @Bean
+    static LazyInitializationExcludeFilter pinningMonitorIsEager() {
+        return LazyInitializationExcludeFilter.forBeanTypes(VirtualThreadPinningMonitor.class);
+    }
+}
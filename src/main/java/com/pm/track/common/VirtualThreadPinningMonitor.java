@@ -0,0 +1,62 @@
+package com.pm.track.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * In virtual-thread mode, streams JFR {@code jdk.VirtualThreadPinned} events
+ * and logs where a virtual thread blocked while pinned to its carrier
+ * (typically inside {@code synchronized} or native code), so such spots can be
+ * fixed before they cap throughput.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream stream;
+    private final Counter pinned;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${track.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+
+        this.stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (log.isWarnEnabled()) {
+            List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+            String where = frames.stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                    .collect(Collectors.joining("\n\tat "));
+            log.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), where);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,63 @@
+package com.pm.track.common.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.pm.track.user.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache, kept in-process in Caffeine behind JCache.
+ * Only the regions created here exist; an entity annotated with {@code @Cache}
+ * without a region below fails startup rather than getting an unbounded cache.
+ *
+ * <p>Each node has its own copy and nothing invalidates it across nodes: an
+ * update is visible at once on the node that made it, elsewhere only after
+ * {@code users.cache.ttl}. Authentication therefore reads users with
+ * {@code UserRepository.findFreshByEmail}, and writes from a stale copy fail
+ * the {@code @Version} check instead of overwriting newer data.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Hibernate's region names: the entity name, and the entity name plus "##NaturalId" for id resolution
+    static final String USER_REGION = User.class.getName();
+    static final String USER_NATURAL_ID_REGION = USER_REGION + "##NaturalId";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry,
+                                              @Value("${users.cache.max-size:10000}") long maxSize,
+                                              @Value("${users.cache.ttl:10m}") Duration ttl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        for (String region : List.of(USER_REGION, USER_NATURAL_ID_REGION)) {
+            Cache<Object, Object> cache = cacheManager.createCache(region, new CaffeineConfiguration<>()
+                    .setMaximumSize(OptionalLong.of(maxSize))
+                    .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                    .setStatisticsEnabled(true));
+            JCacheMetrics.monitor(meterRegistry, cache);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+}
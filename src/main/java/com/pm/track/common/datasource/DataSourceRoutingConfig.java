@@ -0,0 +1,100 @@
+package com.pm.track.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active only when at least one replica is configured under
+ * {@code app.datasource.replicas}; otherwise Spring Boot's single datasource is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    /**
+     * Built here rather than by Spring Boot, so {@code spring.datasource.hikari.*}
+     * is bound explicitly, as the auto-configured pool would.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                              DataSourceProperties dataSourceProperties) {
+        // Docker Compose support publishes connection details; otherwise use spring.datasource.*
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        HikariDataSource primary = details != null
+                ? DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(details.getJdbcUrl())
+                        .username(details.getUsername())
+                        .password(details.getPassword())
+                        .driverClassName(details.getDriverClassName())
+                        .build()
+                : dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                       ReplicaRoutingProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            pool.setPoolName("replica-" + i);
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            replicas.put(pool.getPoolName(), pool);
+        }
+
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getMaxReplicaLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource routingDataSource) {
+        return new ReplicaLagMonitor(routingDataSource);
+    }
+
+    static class ReplicaLagMonitor {
+
+        private final ReadWriteRoutingDataSource routingDataSource;
+
+        ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval-ms:5000}")
+        void check() {
+            routingDataSource.checkReplicaLag();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pm.track.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round-robin) and
+ * everything else to the primary. Once a request has opened a read-write
+ * transaction, its later reads also go to the primary so it sees its own
+ * writes. Must sit behind a LazyConnectionDataSourceProxy so the routing
+ * decision is made after the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final String WROTE_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".WROTE";
+
+    // Caught up when nothing is left to replay; otherwise how long ago the last replayed commit happened
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<ReplicaTarget> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.replicas = replicas.entrySet().stream()
+                .map(e -> new ReplicaTarget(e.getKey(), e.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markRequestWrote();
+            return PRIMARY;
+        }
+        if (requestWrote()) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica();
+    }
+
+    private Object nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures each replica's replay lag and takes lagging or unreachable
+     * replicas out of rotation until they recover.
+     */
+    public void checkReplicaLag() {
+        for (ReplicaTarget replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lagSeconds = rs.getDouble(1);
+                healthy = lagSeconds * 1000 <= maxLag.toMillis();
+            } catch (Exception e) {
+                log.warn("Replica {} lag check failed: {}", replica.key, e.getMessage());
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is now {}", replica.key, healthy ? "in rotation" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private static void markRequestWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean requestWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private static final class ReplicaTarget {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private ReplicaTarget(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.pm.track.common.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Replicas further behind than this are skipped until they catch up
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
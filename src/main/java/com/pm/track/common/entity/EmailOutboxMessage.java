@@ -0,0 +1,51 @@
+package com.pm.track.common.entity;
+
+import com.pm.track.common.enums.EmailKind;
+import com.pm.track.common.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email waiting to be sent. Written in the same transaction as the change that
+ * triggers it and deleted once delivered; rows given up on are kept as FAILED
+ * with the argument cleared.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, available_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailKind kind;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    // Template argument: the user's name, or the raw reset token for PASSWORD_RESET; null once FAILED
+    private String argument;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private String lastError;
+}
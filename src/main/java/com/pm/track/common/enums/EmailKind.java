@@ -0,0 +1,7 @@
+package com.pm.track.common.enums;
+
+public enum EmailKind {
+    PASSWORD_RESET,
+    WELCOME,
+    RETURNING_USER_OFFER
+}
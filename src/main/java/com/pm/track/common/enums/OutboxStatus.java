@@ -0,0 +1,6 @@
+package com.pm.track.common.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,33 @@
+package com.pm.track.common.repository;
+
+import com.pm.track.common.entity.EmailOutboxMessage;
+import com.pm.track.common.enums.OutboxStatus;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited on
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND available_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutboxMessage> claimDue(LocalDateTime now, int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    // Deletes at most :limit given-up rows so each purge transaction stays short
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "email_outbox"))
+    @Query(value = "DELETE FROM email_outbox WHERE id IN (" +
+            "SELECT id FROM email_outbox WHERE status = 'FAILED' AND created_at < :cutoff LIMIT :limit)",
+            nativeQuery = true)
+    int deleteFailedBefore(LocalDateTime cutoff, int limit);
+}
@@ -3,12 +3,18 @@ package com.pm.track.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Expected business failure (bad input, invalid token, missing resource) that
+ * maps to an HTTP status. Thrown at request volume and only its status and
+ * message are used, so it is created without a stack trace. The message is
+ * shown to the client and keys a cached error body: keep it a constant.
+ */
 public class CustomException extends RuntimeException {
 
     private final HttpStatus status;
 
     public CustomException(String message, HttpStatus status) {
-        super(message);
+        super(message, null, false, false);
         this.status = status;
     }
 
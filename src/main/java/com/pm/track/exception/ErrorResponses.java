@@ -0,0 +1,123 @@
+package com.pm.track.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the {@code {timestamp, status, error, message, path}} error body
+ * from pre-serialized bytes. Each distinct status, exception type and
+ * message is encoded once, so a burst of identical failures (bad logins,
+ * duplicate registrations, invalid tokens) only fills in the timestamp and
+ * path. The timestamp is cached per second.
+ *
+ * <p>Messages must be constants from the code, never request data such as an
+ * email; {@code http.server.errors} is tagged with status and exception type
+ * only, so its series stay bounded whatever the message.
+ */
+@Component
+public class ErrorResponses {
+
+    // Messages are code constants; the bound only guards against one that embeds request data by mistake
+    private static final int MAX_TEMPLATES = 256;
+
+    private static final byte[] TIMESTAMP_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+    private volatile Timestamp timestamp = new Timestamp(-1, new byte[0]);
+
+    public ErrorResponses(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Body for an expected failure; the status and message are encoded once and reused.
+     */
+    public ResponseEntity<byte[]> of(HttpStatus status, String message, Throwable ex, String path) {
+        TemplateKey key = new TemplateKey(status, message, ex.getClass());
+        Template template = templates.get(key);
+        if (template == null) {
+            template = templates.size() < MAX_TEMPLATES
+                    ? templates.computeIfAbsent(key, k -> template(status, message, ex))
+                    : template(status, message, ex);
+        }
+        return render(status, template, path);
+    }
+
+    /**
+     * Body for an unexpected failure, whose message may vary, so it is encoded from scratch.
+     */
+    public ResponseEntity<byte[]> ofUnexpected(HttpStatus status, String message, Throwable ex, String path) {
+        return render(status, template(status, message, ex), path);
+    }
+
+    private ResponseEntity<byte[]> render(HttpStatus status, Template template, String path) {
+        template.counter.increment();
+
+        byte[] ts = timestamp();
+        byte[] encodedPath = path != null ? JsonStringEncoder.getInstance().quoteAsUTF8(path) : new byte[0];
+        byte[] body = new byte[TIMESTAMP_PREFIX.length + ts.length + template.middle.length + encodedPath.length
+                + SUFFIX.length];
+        int pos = put(body, 0, TIMESTAMP_PREFIX);
+        pos = put(body, pos, ts);
+        pos = put(body, pos, template.middle);
+        pos = put(body, pos, encodedPath);
+        put(body, pos, SUFFIX);
+
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private Template template(HttpStatus status, String message, Throwable ex) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        String encodedMessage = message != null ? "\"" + new String(encoder.quoteAsString(message)) + "\"" : "null";
+        String middle = "\",\"status\":" + status.value()
+                + ",\"error\":\"" + new String(encoder.quoteAsString(status.getReasonPhrase()))
+                + "\",\"message\":" + encodedMessage
+                + ",\"path\":\"";
+
+        Counter counter = meterRegistry.counter("http.server.errors",
+                "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName());
+        return new Template(middle.getBytes(StandardCharsets.UTF_8), counter);
+    }
+
+    // Second precision, as ISO_LOCAL_DATE_TIME like Jackson writes LocalDateTime
+    private byte[] timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                    LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            current = new Timestamp(second, formatted.getBytes(StandardCharsets.US_ASCII));
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private static int put(byte[] target, int pos, byte[] source) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private record TemplateKey(HttpStatus status, String message, Class<?> exceptionType) {
+    }
+
+    private record Template(byte[] middle, Counter counter) {
+    }
+
+    private record Timestamp(long second, byte[] bytes) {
+    }
+}
@@ -2,38 +2,94 @@ package com.pm.track.exception;
 
 
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.*;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.util.stream.Collectors;
 
+/**
+ * Error bodies are written by {@link ErrorResponses} from pre-serialized
+ * templates and counted as {@code http.server.errors} per status and
+ * exception. Messages passed to it are constants, never taken from a
+ * framework exception that may embed request data.
+ */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final ErrorResponses errorResponses;
+
     @ExceptionHandler(CustomException.class)
-    public ResponseEntity<ErrorResponse> handleCustomException(CustomException ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(ex.getStatus().value())
-                .error(ex.getStatus().getReasonPhrase())
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
+    public ResponseEntity<byte[]> handleCustomException(CustomException ex, HttpServletRequest request) {
+        return errorResponses.of(ex.getStatus(), ex.getMessage(), ex, request.getRequestURI());
+    }
 
-        return new ResponseEntity<>(error, ex.getStatus());
+    @ExceptionHandler(RetryLaterException.class)
+    public ResponseEntity<byte[]> handleRetryLaterException(RetryLaterException ex, HttpServletRequest request) {
+        ResponseEntity<byte[]> error = errorResponses.of(ex.getStatus(), ex.getMessage(), ex, request.getRequestURI());
+        return ResponseEntity.status(error.getStatusCode())
+                .headers(error.getHeaders())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error.getBody());
     }
 
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleOtherExceptions(Exception ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                .error("Internal Server Error")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
+    // Failed login: wrong password, unknown email (reported the same way) or disabled account.
+    // UsernameNotFoundException also comes from forgot-password with the address in its message.
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<byte[]> handleAuthenticationException(AuthenticationException ex, HttpServletRequest request) {
+        String message;
+        if (ex instanceof UsernameNotFoundException) {
+            message = "User not found";
+        } else if (ex instanceof DisabledException) {
+            message = "User is disabled";
+        } else {
+            message = "Bad credentials";
+        }
+        return errorResponses.of(HttpStatus.UNAUTHORIZED, message, ex, request.getRequestURI());
+    }
 
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+    // Signed in but lacking the authority a @PreAuthorize check asks for, e.g. a USER on the admin endpoints
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<byte[]> handleAccessDeniedException(AccessDeniedException ex, HttpServletRequest request) {
+        return errorResponses.of(HttpStatus.FORBIDDEN, "Access denied", ex, request.getRequestURI());
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<byte[]> handleValidationException(MethodArgumentNotValidException ex, HttpServletRequest request) {
+        // Field and constraint only, never the rejected value, so equal failures share a template
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (message.isEmpty()) {
+            message = "Validation failed";
+        }
+        return errorResponses.of(HttpStatus.BAD_REQUEST, message, ex, request.getRequestURI());
     }
-}
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<byte[]> handleUnreadableBody(HttpMessageNotReadableException ex, HttpServletRequest request) {
+        return errorResponses.of(HttpStatus.BAD_REQUEST, "Malformed request body", ex, request.getRequestURI());
+    }
+
+    // A concurrent transaction updated the same row first (@Version check failed)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        return errorResponses.of(HttpStatus.CONFLICT, "The resource was modified concurrently; reload and retry",
+                ex, request.getRequestURI());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleOtherExceptions(Exception ex, HttpServletRequest request) {
+        return errorResponses.ofUnexpected(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), ex,
+                request.getRequestURI());
+    }
+}
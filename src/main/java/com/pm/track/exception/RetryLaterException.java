@@ -0,0 +1,21 @@
+package com.pm.track.exception;
+
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Request rejected for lack of capacity; the client may retry after the given delay.
+ */
+public class RetryLaterException extends CustomException {
+
+    private final long retryAfterSeconds;
+
+    public RetryLaterException(String message, HttpStatus status, long retryAfterSeconds) {
+        super(message, status);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,69 @@
+package com.pm.track.user.controller;
+
+import com.pm.track.auth.dto.RevokeTokenRequest;
+import com.pm.track.auth.service.TokenRevocationService;
+import com.pm.track.user.dto.BulkImportResponse;
+import com.pm.track.user.service.UserImportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+public class AdminUserController {
+
+    private final UserImportService userImportService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * 📥 CSV with header "name,email,password[,role]"; reports progress per batch and errors per row
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkImportResponse> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(userImportService.importUsers(in));
+        }
+    }
+
+    /**
+     * 📤 All users as CSV, written while the cursor is read
+     */
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            userImportService.exportUsers(writer);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * 🔒 Signs the user out everywhere: every access and refresh token stops working (other nodes within the token-version sync interval)
+     */
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<String> revokeUserTokens(@PathVariable Long id) {
+        tokenRevocationService.revokeAllForUser(id);
+        return ResponseEntity.ok("Tokens revoked");
+    }
+
+    /**
+     * 🚫 Revokes a single access token, e.g. one reported as leaked
+     */
+    @PostMapping("/revoke-token")
+    public ResponseEntity<String> revokeToken(@Valid @RequestBody RevokeTokenRequest request) {
+        tokenRevocationService.revokeAccessToken(request.getToken());
+        return ResponseEntity.ok("Token revoked");
+    }
+}
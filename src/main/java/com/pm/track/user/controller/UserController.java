@@ -0,0 +1,109 @@
+package com.pm.track.user.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.track.exception.CustomException;
+import com.pm.track.user.dto.UserPageResponse;
+import com.pm.track.user.dto.UserRequest;
+import com.pm.track.user.dto.UserResponse;
+import com.pm.track.user.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 🏷️ ETag is "id.version"; a matching If-None-Match gets 304 with no body written
+     */
+    @GetMapping("/me")
+    public ResponseEntity<UserResponse> getCurrentUser(WebRequest request) {
+        UserResponse user = userService.getCurrentUser();
+        String etag = etag(user);
+        if (request.checkNotModified(etag)) {
+            return null; // 304 already set up by checkNotModified
+        }
+        return ResponseEntity.ok().eTag(etag).body(user);
+    }
+
+    /**
+     * ✏️ Send the ETag from GET /me as If-Match to reject the update (412) if someone else changed the user first
+     */
+    @PutMapping("/me")
+    public ResponseEntity<UserResponse> updateCurrentUser(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                          @Valid @RequestBody UserRequest request) {
+        UserResponse user = userService.updateCurrentUser(request, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etag(user)).body(user);
+    }
+
+    /**
+     * 🏷️ The page's ETag comes from an aggregate over its rows, checked before the page is loaded
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UserPageResponse> getUsers(@RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "50") int size,
+                                                     WebRequest request) {
+        String etag = "\"p" + userService.getUsersFingerprint(after, size) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(userService.getUsers(after, size));
+    }
+
+    /**
+     * 🌊 Every user as one JSON object per line, written while the cursor is read
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                userService.forEachUser(user -> {
+                    try {
+                        generator.writeObject(user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private static String etag(UserResponse user) {
+        return "\"" + user.getId() + "." + user.getVersion() + "\"";
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value.substring(value.indexOf('.') + 1));
+        } catch (NumberFormatException e) {
+            throw new CustomException("Malformed If-Match header", HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+}
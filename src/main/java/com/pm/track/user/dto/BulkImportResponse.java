@@ -0,0 +1,51 @@
+package com.pm.track.user.dto;
+
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResponse {
+
+    private int totalRows;
+    private int imported;
+    private int skipped;
+
+    @Builder.Default
+    private List<BatchResult> batches = new ArrayList<>();
+
+    // Capped; see errorsTruncated
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BatchResult {
+        private int batch;
+        private int rows;
+        private int imported;
+        private int skipped;
+        private long durationMs;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        private long line;
+        private String email;
+        private String reason;
+    }
+}
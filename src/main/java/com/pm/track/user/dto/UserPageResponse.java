@@ -0,0 +1,19 @@
+package com.pm.track.user.dto;
+
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageResponse {
+
+    private List<UserResponse> users;
+
+    // Id to pass as "after" for the next page; null on the last page
+    private Long nextCursor;
+}
@@ -1,6 +1,7 @@
 package com.pm.track.user.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pm.track.common.enums.UserRole;
 import lombok.*;
 
@@ -15,4 +16,12 @@ public class UserResponse {
     private String name;
     private String email;
     private UserRole role;
+
+    // Row version, sent as the ETag header rather than in the body; null when not loaded
+    @JsonIgnore
+    private Long version;
+
+    public UserResponse(Long id, String name, String email, UserRole role) {
+        this(id, name, email, role, null);
+    }
 }
@@ -5,6 +5,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_password_reset_token_expiry", columnList = "expiryDate"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,14 +17,15 @@ public class PasswordResetToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // Hex SHA-256 of the token mailed to the user; the raw token is never stored
+    @Column(name = "token", nullable = false, unique = true, length = 64)
+    private String tokenHash;
 
+    // One live token per user, replaced in place on every forgot-password request
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
     @Column(nullable = false)
     private LocalDateTime expiryDate;
 }
-
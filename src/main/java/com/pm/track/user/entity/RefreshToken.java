@@ -0,0 +1,45 @@
+package com.pm.track.user.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_expiry", columnList = "expiryDate"),
+        @Index(name = "idx_refresh_token_family", columnList = "familyId"),
+        @Index(name = "idx_refresh_token_user", columnList = "user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of the token handed to the client; the raw token is never stored
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Shared by every token rotated from the same login; revoked together on reuse
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    // User's token version at issue; a password change or disable invalidates the family
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime expiryDate;
+
+    // Set when rotated; presenting a used token again means it leaked
+    private LocalDateTime usedAt;
+}
@@ -4,9 +4,20 @@ package com.pm.track.user.entity;
 import com.pm.track.common.enums.UserRole;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_token_version_changed_at", columnList = "tokenVersionChangedAt"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+// Updates write only changed columns, so a cached copy never overwrites last_offer_email_at (see claimOfferEmail)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +31,8 @@ public class User {
 
     private String name;
 
+    // Lookups by email go through the natural-id cache; see UserNaturalIdRepository
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -29,4 +42,27 @@ public class User {
     private UserRole role;
 
     private boolean enabled = true;
+
+    // Bumped on password change/reset so previously issued JWTs stop verifying
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    private int tokenVersion;
+
+    // When tokenVersion last changed; other nodes poll this to pick up revocations
+    private LocalDateTime tokenVersionChangedAt;
+
+    // When the last returning-user offer mail was queued; throttles one per window
+    private LocalDateTime lastOfferEmailAt;
+
+    // Optimistic lock; also the ETag of the user's representation
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private long version;
+
+    /**
+     * Invalidates every token issued to the user so far.
+     */
+    public void bumpTokenVersion() {
+        tokenVersion++;
+        tokenVersionChangedAt = LocalDateTime.now();
+    }
 }
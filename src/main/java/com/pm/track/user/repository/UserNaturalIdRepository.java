@@ -0,0 +1,24 @@
+package com.pm.track.user.repository;
+
+import com.pm.track.user.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Email lookups resolved through Hibernate's natural-id API, so they are
+ * answered from the second-level cache instead of a query once the user has
+ * been loaded. Mixed into {@link UserRepository}.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * Reads the user from the database and refreshes the cached copy. The cache
+     * is per node, so anything deciding who may sign in (password hash,
+     * enabled, tokenVersion) must not trust it.
+     */
+    Optional<User> findFreshByEmail(String email);
+}
@@ -0,0 +1,42 @@
+package com.pm.track.user.repository;
+
+import com.pm.track.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Unwrapping the Session needs a transaction; like SimpleJpaRepository, join the caller's or open a read-only one
+@Transactional(readOnly = true)
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public Optional<User> findFreshByEmail(String email) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.REFRESH); // skip cache reads, still write the loaded state
+        try {
+            return session.bySimpleNaturalId(User.class).loadOptional(email);
+        } finally {
+            session.setCacheMode(previous);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+}
@@ -1,14 +1,69 @@
 package com.pm.track.user.repository;
 
 
+import com.pm.track.user.dto.UserResponse;
 import com.pm.track.user.entity.User;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+
+    // Claims the offer-mail slot only if none was sent since the cutoff; returns rows updated (0 or 1).
+    // Native with a query space no entity maps to: a JPQL update on User would evict the whole User
+    // cache region, and last_offer_email_at is never read from the entity (User uses @DynamicUpdate).
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_offer_claim"))
+    @Query(value = "UPDATE users SET last_offer_email_at = :now " +
+            "WHERE id = :id AND (last_offer_email_at IS NULL OR last_offer_email_at < :cutoff)",
+            nativeQuery = true)
+    int claimOfferEmail(Long id, LocalDateTime now, LocalDateTime cutoff);
+
+    @Query("SELECT u.name FROM User u WHERE u.id = :id")
+    Optional<String> findNameById(Long id);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // [id, tokenVersion] for users whose tokens have been revoked at least once
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+
+    // [id, email, tokenVersion] for users whose token version changed after the given time
+    @Query("SELECT u.id, u.email, u.tokenVersion FROM User u WHERE u.tokenVersionChangedAt > :since")
+    List<Object[]> findTokenVersionsChangedSince(LocalDateTime since);
+
+    // Keyset page: rows strictly after the given id, built as DTOs without managed entities
+    @Query("SELECT new com.pm.track.user.dto.UserResponse(u.id, u.name, u.email, u.role) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserResponse> findPageAfter(Long afterId, Limit limit);
+
+    // "count-sum(version)-max(id)" over the rows findPageAfter would return; changes whenever any of them does
+    @Query(value = "SELECT count(*) || '-' || coalesce(sum(version), 0) || '-' || coalesce(max(id), 0) " +
+            "FROM (SELECT id, version FROM users WHERE id > :afterId ORDER BY id LIMIT :limit) page",
+            nativeQuery = true)
+    String findPageFingerprint(Long afterId, int limit);
+
+    // Forward-only cursor over all users; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.pm.track.user.dto.UserResponse(u.id, u.name, u.email, u.role) " +
+            "FROM User u ORDER BY u.id")
+    Stream<UserResponse> streamAll();
 
 
 
@@ -0,0 +1,110 @@
+package com.pm.track.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.pm.track.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Allows at most one returning-user offer mail per user per window. Users seen
+ * within the window are remembered in memory, so repeat logins are suppressed
+ * without a query. Otherwise the slot is claimed with a conditional update on
+ * {@code users.last_offer_email_at}, which also keeps nodes from double-sending.
+ *
+ * <p>Only a successful claim is remembered for the whole window. A claim lost
+ * to another node is remembered for {@code lost-claim-ttl}, since that node's
+ * window may end sooner; a failed query is not remembered at all.
+ */
+@Slf4j
+@Component
+public class OfferEmailThrottle {
+
+    private final UserRepository userRepository;
+    private final Duration window;
+    private final Cache<Long, Boolean> recentlyHandled;
+    private final Counter sent;
+    private final Counter suppressed;
+    private final Counter failed;
+
+    @Autowired
+    public OfferEmailThrottle(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${email.returning-offer.window:7d}") Duration window,
+                              @Value("${email.returning-offer.lost-claim-ttl:5m}") Duration lostClaimTtl,
+                              @Value("${email.returning-offer.max-tracked-users:100000}") long maxTrackedUsers) {
+        this(userRepository, meterRegistry, window, lostClaimTtl, maxTrackedUsers, Ticker.systemTicker());
+    }
+
+    OfferEmailThrottle(UserRepository userRepository, MeterRegistry meterRegistry, Duration window,
+                       Duration lostClaimTtl, long maxTrackedUsers, Ticker ticker) {
+        this.userRepository = userRepository;
+        this.window = window;
+        this.recentlyHandled = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfter(new ClaimExpiry(window, lostClaimTtl))
+                .ticker(ticker)
+                .build();
+        this.sent = meterRegistry.counter("email.returning-offer", "result", "sent");
+        this.suppressed = meterRegistry.counter("email.returning-offer", "result", "suppressed");
+        this.failed = meterRegistry.counter("email.returning-offer", "result", "failed");
+    }
+
+    /**
+     * Returns true if the caller should queue an offer mail for this user now.
+     * A database failure returns false without failing the caller's login.
+     */
+    public boolean tryAcquire(Long userId) {
+        if (recentlyHandled.getIfPresent(userId) != null) {
+            suppressed.increment();
+            return false;
+        }
+
+        // Concurrent logins of the same user share one claim attempt; only the loader's caller may send
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] claimed = {false};
+        try {
+            recentlyHandled.get(userId, id -> {
+                claimed[0] = userRepository.claimOfferEmail(id, now, now.minus(window)) == 1;
+                return claimed[0];
+            });
+        } catch (DataAccessException | TransactionException e) {
+            // Nothing was cached, so the next login tries again
+            failed.increment();
+            log.warn("Could not claim the returning-user offer for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+
+        (claimed[0] ? sent : suppressed).increment();
+        return claimed[0];
+    }
+
+    private record ClaimExpiry(Duration window, Duration lostClaimTtl) implements Expiry<Long, Boolean> {
+
+        @Override
+        public long expireAfterCreate(Long userId, Boolean claimed, long currentTime) {
+            return (claimed ? window : lostClaimTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Boolean claimed, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, claimed, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Boolean claimed, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
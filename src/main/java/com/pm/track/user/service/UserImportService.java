@@ -0,0 +1,13 @@
+package com.pm.track.user.service;
+
+
+import com.pm.track.user.dto.BulkImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+
+public interface UserImportService {
+    BulkImportResponse importUsers(InputStream csv) throws IOException;
+    void exportUsers(Writer out) throws IOException;
+}
@@ -4,17 +4,21 @@ package com.pm.track.user.service;
 import com.pm.track.auth.dto.SignupRequest;
 import com.pm.track.user.dto.ChangePasswordRequest;
 import com.pm.track.auth.dto.LoginRequest;
+import com.pm.track.auth.dto.TokenResponse;
+import com.pm.track.user.dto.UserPageResponse;
 import com.pm.track.user.dto.UserRequest;
 import com.pm.track.user.dto.UserResponse;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserResponse registerUser(SignupRequest request);
-    String loginUser(LoginRequest request);
+    TokenResponse loginUser(LoginRequest request);
     UserResponse getCurrentUser();
-    UserResponse updateCurrentUser(UserRequest userRequest);
-    List<UserResponse> getAllUsers();
+    UserResponse updateCurrentUser(UserRequest userRequest, Long expectedVersion);
+    UserPageResponse getUsers(Long after, int size);
+    String getUsersFingerprint(Long after, int size);
+    void forEachUser(Consumer<UserResponse> action);
 
     void changePassword(ChangePasswordRequest request);
 }
@@ -0,0 +1,266 @@
+package com.pm.track.user.service.impl;
+
+import com.pm.track.common.Csv;
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.exception.CustomException;
+import com.pm.track.user.dto.BulkImportResponse;
+import com.pm.track.user.repository.UserRepository;
+import com.pm.track.user.service.UserImportService;
+import com.pm.track.user.service.UserService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    // IDENTITY ids rule out Hibernate insert batching, so a batch goes in as one statement over arrays.
+    // RETURNING names the rows actually inserted; batch update counts cannot (SUCCESS_NO_INFO).
+    private static final String INSERT_USERS = "INSERT INTO users (name, email, password, role, enabled, token_version) " +
+            "SELECT name, email, password, role, true, 0 FROM unnest(?, ?, ?, ?) AS t(name, email, password, role) " +
+            "ON CONFLICT (email) DO NOTHING RETURNING email";
+    private static final String INSERT_WELCOME_EMAIL = "INSERT INTO email_outbox " +
+            "(kind, recipient, argument, status, attempts, available_at, created_at) " +
+            "VALUES ('WELCOME', ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    // Separate from PasswordHashingExecutor so an import cannot starve interactive logins of its queue
+    private final ForkJoinPool hashingPool;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 UserService userService,
+                                 PasswordEncoder passwordEncoder,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${users.import.batch-size:500}") int batchSize,
+                                 @Value("${users.import.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.hashingPool = new ForkJoinPool(hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads "name,email,password[,role]" rows (header required) and imports
+     * them in batches: one existence query, parallel hashing, and one JDBC
+     * batch for users plus one for their welcome mails per batch. Each batch
+     * commits on its own, so a failure part-way keeps earlier batches.
+     */
+    @Override
+    public BulkImportResponse importUsers(InputStream csv) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = readHeader(reader.readLine());
+
+        BulkImportResponse response = new BulkImportResponse();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            response.setTotalRows(response.getTotalRows() + 1);
+
+            ImportRow row = parseRow(lineNumber, Csv.parseLine(line), columns, response);
+            if (row != null) {
+                batch.add(row);
+            }
+            if (batch.size() == batchSize) {
+                importBatch(batch, response);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, response);
+        }
+
+        response.setSkipped(response.getTotalRows() - response.getImported());
+        return response;
+    }
+
+    @Override
+    public void exportUsers(Writer out) throws IOException {
+        out.write("id,name,email,role\n");
+        userService.forEachUser(user -> {
+            try {
+                out.write(user.getId() + "," + Csv.escape(user.getName()) + "," + Csv.escape(user.getEmail())
+                        + "," + user.getRole() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    private Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new CustomException("CSV file is empty", HttpStatus.BAD_REQUEST);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = Csv.parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new CustomException("CSV header must contain name, email and password", HttpStatus.BAD_REQUEST);
+            }
+        }
+        return columns;
+    }
+
+    private ImportRow parseRow(long lineNumber, List<String> fields, Map<String, Integer> columns,
+                               BulkImportResponse response) {
+        String name = field(fields, columns.get("name"));
+        String email = field(fields, columns.get("email"));
+        String password = field(fields, columns.get("password"));
+        String role = field(fields, columns.get("role"));
+
+        if (name.isEmpty() || password.isEmpty()) {
+            reportError(response, lineNumber, email, "Name and password are required");
+            return null;
+        }
+        if (!EMAIL.matcher(email).matches()) {
+            reportError(response, lineNumber, email, "Invalid email");
+            return null;
+        }
+
+        UserRole userRole = UserRole.USER;
+        if (!role.isEmpty()) {
+            try {
+                userRole = UserRole.valueOf(role.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                reportError(response, lineNumber, email, "Unknown role " + role);
+                return null;
+            }
+        }
+        return new ImportRow(lineNumber, name, email, password, userRole);
+    }
+
+    private void importBatch(List<ImportRow> rows, BulkImportResponse response) {
+        long start = System.currentTimeMillis();
+
+        // Drop emails already registered or repeated earlier in this batch
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(rows.stream().map(ImportRow::email).toList()));
+        List<ImportRow> fresh = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (taken.add(row.email())) {
+                fresh.add(row);
+            } else {
+                reportError(response, row.line(), row.email(), "Email already exists");
+            }
+        }
+
+        List<String> hashes = hashAll(fresh);
+        List<ImportRow> inserted = transactionTemplate.execute(status -> insert(fresh, hashes));
+
+        // Rows lost to a concurrent registration between the existence check and the insert
+        Set<ImportRow> insertedRows = new HashSet<>(inserted);
+        fresh.stream()
+                .filter(row -> !insertedRows.contains(row))
+                .forEach(row -> reportError(response, row.line(), row.email(), "Email already exists"));
+
+        BulkImportResponse.BatchResult result = BulkImportResponse.BatchResult.builder()
+                .batch(response.getBatches().size() + 1)
+                .rows(rows.size())
+                .imported(inserted.size())
+                .skipped(rows.size() - inserted.size())
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+        response.getBatches().add(result);
+        response.setImported(response.getImported() + inserted.size());
+
+        log.info("User import batch {}: {} rows, {} imported in {} ms",
+                result.getBatch(), result.getRows(), result.getImported(), result.getDurationMs());
+    }
+
+    private List<String> hashAll(List<ImportRow> rows) {
+        try {
+            return hashingPool.submit(() -> rows.parallelStream()
+                    .map(row -> passwordEncoder.encode(row.password()))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hashing imported passwords failed", e.getCause());
+        }
+    }
+
+    private List<ImportRow> insert(List<ImportRow> rows, List<String> hashes) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<String> insertedEmails = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_USERS);
+            ps.setArray(1, connection.createArrayOf("text", rows.stream().map(ImportRow::name).toArray()));
+            ps.setArray(2, connection.createArrayOf("text", rows.stream().map(ImportRow::email).toArray()));
+            ps.setArray(3, connection.createArrayOf("text", hashes.toArray()));
+            ps.setArray(4, connection.createArrayOf("text", rows.stream().map(row -> row.role().name()).toArray()));
+            return ps;
+        }, (rs, i) -> rs.getString(1)));
+
+        // Emails are unique within the batch, so the returned ones identify the rows
+        List<ImportRow> inserted = rows.stream()
+                .filter(row -> insertedEmails.contains(row.email()))
+                .toList();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_WELCOME_EMAIL, inserted, inserted.size(), (ps, row) -> {
+            ps.setString(1, row.email());
+            ps.setString(2, row.name());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        return inserted;
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : "";
+    }
+
+    private static void reportError(BulkImportResponse response, long line, String email, String reason) {
+        if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+            response.getErrors().add(new BulkImportResponse.RowError(line, email, reason));
+        } else {
+            response.setErrorsTruncated(true);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private record ImportRow(long line, String name, String email, String password, UserRole role) {
+    }
+}
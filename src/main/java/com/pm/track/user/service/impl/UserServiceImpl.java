@@ -3,38 +3,60 @@ package com.pm.track.user.service.impl;
 import com.pm.track.auth.dto.SignupRequest;
 import com.pm.track.user.dto.ChangePasswordRequest;
 import com.pm.track.auth.dto.LoginRequest;
+import com.pm.track.auth.dto.TokenResponse;
+import com.pm.track.auth.service.RefreshTokenService;
 import com.pm.track.user.entity.User;
 import com.pm.track.common.enums.UserRole;
 import com.pm.track.exception.CustomException;
 import com.pm.track.user.repository.UserRepository;
-import com.pm.track.auth.security.JwtUtil;
+import com.pm.track.auth.security.LoginAuthenticator;
+import com.pm.track.auth.security.PasswordHashingExecutor;
 import com.pm.track.auth.security.UserDetailsImpl;
+import com.pm.track.auth.security.TokenVersionRegistry;
+import com.pm.track.auth.security.UserPrincipalCache;
 import com.pm.track.common.EmailService;
+import com.pm.track.user.service.OfferEmailThrottle;
 import com.pm.track.user.service.UserService;
+import com.pm.track.user.dto.UserPageResponse;
 import com.pm.track.user.dto.UserRequest;
 import com.pm.track.user.dto.UserResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginAuthenticator loginAuthenticator;
+    private final TransactionTemplate transactionTemplate;
     private final EmailService emailService;
-    private final JwtUtil jwtUtil;
-
+    private final RefreshTokenService refreshTokenService;
+    private final UserPrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final OfferEmailThrottle offerEmailThrottle;
+
+    /**
+     * Hashes before the transaction opens, so signups waiting for the hashing
+     * pool hold no database connection; the user and its welcome mail are
+     * then written in one transaction.
+     */
     @Override
     public UserResponse registerUser(SignupRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -44,13 +66,15 @@ public class UserServiceImpl implements UserService {
         User user = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(hashingExecutor.execute("encode", () -> passwordEncoder.encode(request.getPassword())))
                 .role(request.getRole() != null ? request.getRole() : UserRole.USER)
                 .enabled(true)
                 .build();
 
-        userRepository.save(user);
-        emailService.sendWelcomeEmail(user.getEmail(), user.getName());
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user);
+            emailService.sendWelcomeEmail(user.getEmail(), user.getName());
+        });
 
         return UserResponse.builder()
                 .id(user.getId())
@@ -61,36 +85,55 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public String loginUser(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-
-        UserDetails userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        emailService.sendReturningUserOfferEmail(userDetails.getUsername(), userDetails.getPassword());
-        return jwtUtil.generateToken(userDetails.getUsername());
+    public TokenResponse loginUser(LoginRequest request) {
+        // Looks the user up here; only the hash check (and a rehash of an outdated hash) uses the hashing pool
+        Authentication authentication = loginAuthenticator.authenticate(request.getEmail(), request.getPassword());
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        if (offerEmailThrottle.tryAcquire(userDetails.getId())) {
+            String name = userRepository.findNameById(userDetails.getId()).orElse("");
+            emailService.sendReturningUserOfferEmail(userDetails.getUsername(), name);
+        }
+        return refreshTokenService.issue(userDetails);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getCurrentUser() {
         String email = getCurrentEmail();
-        User user = userRepository.findByEmail(email)
+        return userRepository.findByEmail(email)
+                .map(UserServiceImpl::mapToResponse)
                 .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
-
-        return mapToResponse(user);
     }
 
+    /**
+     * @param expectedVersion version from the client's If-Match, or null to skip the check;
+     *                        concurrent writers are still caught by the @Version column
+     */
     @Override
-    public UserResponse updateCurrentUser(UserRequest request) {
+    @Transactional
+    public UserResponse updateCurrentUser(UserRequest request, Long expectedVersion) {
         String email = getCurrentEmail();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+        if (expectedVersion != null && expectedVersion != user.getVersion()) {
+            throw new CustomException("User was modified by another request; reload and retry",
+                    HttpStatus.PRECONDITION_FAILED);
+        }
 
+        boolean disabling = user.isEnabled() && !request.isEnabled();
         user.setName(request.getName());
         user.setEnabled(request.isEnabled());
+        if (disabling) {
+            user.bumpTokenVersion();
+        }
 
-        userRepository.save(user);
+        userRepository.saveAndFlush(user); // flush so the response carries the new version
+        principalCache.invalidate(email);
+        if (disabling) {
+            tokenVersions.bump(user.getId(), user.getTokenVersion());
+        }
 
         return mapToResponse(user);
     }
@@ -100,44 +143,89 @@ public class UserServiceImpl implements UserService {
         return auth.getName(); // email
     }
 
-    private UserResponse mapToResponse(User user) {
+    static UserResponse mapToResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
                 .name(user.getName())
                 .email(user.getEmail())
                 .role(user.getRole())
+                .version(user.getVersion())
                 .build();
     }
 
 
     @Override
-    public List<UserResponse> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsers(Long after, int size) {
+        int pageSize = pageSize(size);
+
+        // Fetch one extra row to learn whether another page exists
+        List<UserResponse> users = userRepository.findPageAfter(after != null ? after : 0L, Limit.of(pageSize + 1));
+        Long nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = users.get(pageSize - 1).getId();
+        }
+
+        return UserPageResponse.builder()
+                .users(users)
+                .nextCursor(nextCursor)
+                .build();
     }
 
+    /**
+     * Cheap stand-in for the page's content: one aggregate over the same rows, no DTOs built.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public String getUsersFingerprint(Long after, int size) {
+        return userRepository.findPageFingerprint(after != null ? after : 0L, pageSize(size) + 1);
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<UserResponse> action) {
+        try (Stream<UserResponse> users = userRepository.streamAll()) {
+            users.forEach(action);
+        }
+    }
+
+
+    /**
+     * Not one transaction, so no connection is held while hashing: the user is read
+     * in a short read-only transaction and saved in its own read-write one on the
+     * primary, where the @Version check rejects a copy that was stale by then.
+     */
     @Override
     public void changePassword(ChangePasswordRequest request) {
         String email = getCurrentEmail();
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findFreshByEmail(email)
                 .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
 
-        // Check if old password matches
-        if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
-            throw new CustomException("Old password is incorrect", HttpStatus.BAD_REQUEST);
-        }
+        String newHash = hashingExecutor.execute("change", () -> {
+            // Check if old password matches
+            if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
+                throw new CustomException("Old password is incorrect", HttpStatus.BAD_REQUEST);
+            }
 
-        // Check if new password is same as old
-        if (passwordEncoder.matches(request.getNewPassword(), user.getPassword())) {
-            throw new CustomException("New password cannot be same as old password", HttpStatus.BAD_REQUEST);
-        }
+            // Check if new password is same as old
+            if (passwordEncoder.matches(request.getNewPassword(), user.getPassword())) {
+                throw new CustomException("New password cannot be same as old password", HttpStatus.BAD_REQUEST);
+            }
+
+            return passwordEncoder.encode(request.getNewPassword());
+        });
 
         // Set and save new password
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(newHash);
+        user.bumpTokenVersion();
         userRepository.save(user);
+        principalCache.invalidate(email);
+        tokenVersions.bump(user.getId(), user.getTokenVersion());
     }
 
 
@@ -0,0 +1,186 @@
+package com.pm.track.startup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the application repeatedly as packaged (baseline) and in the
+ * fast-startup launch mode (AOT + CDS archive + lazy beans), and reports
+ * wall-clock time from process launch until the application is ready:
+ * readiness probe up and a sign-in answered from the database. The readiness
+ * endpoint must be reachable without credentials. Run by the fast-startup
+ * Maven profile; single file, so it needs no compilation:
+ *
+ * <pre>
+ * java src/startup/java/com/pm/track/startup/StartupBenchmark.java runs fat.jar extracted-dir [app args...]
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([\\d.]+) seconds");
+    private static final Pattern PORT = Pattern.compile("Tomcat started on port (\\d+)");
+    private static final String UNKNOWN_LOGIN = "{\"email\":\"startup-benchmark@invalid\",\"password\":\"not-a-password\"}";
+    private static final long TIMEOUT_SECONDS = 120;
+    private static final long POLL_MS = 5;
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(args[0]);
+        Path fatJar = Path.of(args[1]);
+        Path extracted = Path.of(args[2]);
+        List<String> appArgs = new ArrayList<>(Arrays.asList(args).subList(3, args.length));
+        appArgs.add("--server.port=0");
+
+        Path archive = extracted.resolve("application.jsa");
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("No CDS archive at " + archive + "; run the cds-training-run step first");
+        }
+
+        List<String> baseline = new ArrayList<>(List.of("java", "-jar", fatJar.toString()));
+        baseline.addAll(appArgs);
+
+        List<String> optimized = new ArrayList<>(List.of("java",
+                "-XX:SharedArchiveFile=" + archive,
+                "-Dspring.aot.enabled=true",
+                "-jar", extracted.resolve(fatJar.getFileName()).toString(),
+                "--spring.profiles.active=fast-startup"));
+        optimized.addAll(appArgs);
+
+        // One discarded launch each so both modes start with a warm OS page cache
+        launch(baseline);
+        launch(optimized);
+
+        long[][] baselineMs = new long[runs][];
+        long[][] optimizedMs = new long[runs][];
+        for (int i = 0; i < runs; i++) {
+            // Interleaved so drift in machine load affects both modes alike
+            baselineMs[i] = launch(baseline);
+            optimizedMs[i] = launch(optimized);
+        }
+
+        System.out.printf("%d runs, time to ready (wall clock from launch until a sign-in is answered / \"Started\" as logged)%n", runs);
+        System.out.printf("%-14s %12s %12s %12s %14s%n", "mode", "min ms", "median ms", "max ms", "logged med ms");
+        long baselineMedian = report("baseline", baselineMs);
+        long optimizedMedian = report("fast-startup", optimizedMs);
+        System.out.printf("median speedup %.2fx (%d ms saved)%n",
+                (double) baselineMedian / optimizedMedian, baselineMedian - optimizedMedian);
+    }
+
+    /**
+     * Ready means /actuator/health/readiness answers 200 and then a sign-in for
+     * an unknown address is answered 401. The "Started" line alone comes too
+     * early in the fast-startup mode: lazy beans and the deferred JPA bootstrap
+     * are still pending, and that request waits for both.
+     *
+     * @return {wall-clock ms until ready, ms reported in the "Started" line}
+     */
+    private static long[] launch(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        // Drained on its own thread so a full pipe never stalls the application
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread drain = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                // process ended
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+
+        List<String> tail = new ArrayList<>();
+        try {
+            int port = -1;
+            long loggedMs = -1;
+            while (port < 0 || loggedMs < 0) {
+                String line = lines.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (line == null) {
+                    throw new IllegalStateException("No \"Started\" line within " + TIMEOUT_SECONDS + "s");
+                }
+                Matcher portMatch = PORT.matcher(line);
+                if (portMatch.find()) {
+                    port = Integer.parseInt(portMatch.group(1));
+                }
+                Matcher started = STARTED.matcher(line);
+                if (started.find()) {
+                    loggedMs = Math.round(Double.parseDouble(started.group(1)) * 1000);
+                }
+                if (tail.size() == 40) {
+                    tail.remove(0);
+                }
+                tail.add(line);
+            }
+
+            URI base = URI.create("http://127.0.0.1:" + port);
+            awaitStatus(HttpRequest.newBuilder(base.resolve("/actuator/health/readiness")).GET().build(), 200, deadline);
+            awaitStatus(HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(UNKNOWN_LOGIN))
+                    .build(), 401, deadline);
+            long wallMs = (System.nanoTime() - start) / 1_000_000;
+            return new long[]{wallMs, loggedMs};
+        } catch (IllegalStateException e) {
+            lines.drainTo(tail);
+            throw new IllegalStateException("Application did not become ready: " + String.join(" ", command)
+                    + System.lineSeparator() + e.getMessage() + System.lineSeparator()
+                    + String.join(System.lineSeparator(), tail.subList(Math.max(0, tail.size() - 40), tail.size())));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void awaitStatus(HttpRequest request, int expected, long deadline) throws InterruptedException {
+        int last = -1;
+        while (System.nanoTime() < deadline) {
+            try {
+                last = HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (last == expected) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not accepting connections yet
+            }
+            Thread.sleep(POLL_MS);
+        }
+        throw new IllegalStateException(request.method() + " " + request.uri().getPath() + " did not return "
+                + expected + " (last status " + last + ")");
+    }
+
+    private static long report(String mode, long[][] samples) {
+        long[] wall = Arrays.stream(samples).mapToLong(s -> s[0]).sorted().toArray();
+        long[] logged = Arrays.stream(samples).mapToLong(s -> s[1]).sorted().toArray();
+        long median = wall[wall.length / 2];
+        System.out.printf("%-14s %12d %12d %12d %14d%n", mode, wall[0], median, wall[wall.length - 1],
+                logged[logged.length / 2]);
+        return median;
+    }
+}
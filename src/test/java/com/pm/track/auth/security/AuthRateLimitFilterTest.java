@@ -0,0 +1,114 @@
+package com.pm.track.auth.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.track.exception.RetryLaterException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AuthRateLimitFilterTest {
+
+    private static final String BODY = "{\"email\":\"A@x.io\",\"password\":\"secret\"}";
+
+    private final HandlerExceptionResolver resolver = mock(HandlerExceptionResolver.class);
+
+    // 2 per IP, 1 per email, no refill within a test
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter(new ObjectMapper(), resolver,
+            new SimpleMeterRegistry(), 2, 1, 1, 1, Duration.ofMinutes(10), 1000);
+
+    @Test
+    void passesTheInspectedBodyOn() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", BODY), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest().getInputStream().readAllBytes())
+                .isEqualTo(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void notifiesAReadListenerOfTheBufferedBody() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", BODY), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[8];
+                int n;
+                while (in.isReady() && (n = in.read(buffer)) >= 0) {
+                    read.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(allRead).isTrue();
+        assertThat(in.isFinished()).isTrue();
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void limitsRequestsPerEmailIgnoringCase() throws Exception {
+        filter.doFilter(login("10.0.0.1", BODY), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.2", BODY.replace("A@x.io", "a@X.io")), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNull();
+        verify(resolver).resolveException(any(), any(), isNull(), any(RetryLaterException.class));
+    }
+
+    @Test
+    void limitsRequestsPerClientAddress() throws Exception {
+        filter.doFilter(login("10.0.0.1", "{\"email\":\"a@x.io\"}"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(login("10.0.0.1", "{\"email\":\"b@x.io\"}"), new MockHttpServletResponse(), new MockFilterChain());
+        verify(resolver, never()).resolveException(any(), any(), any(), any());
+
+        MockFilterChain rejected = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", "{\"email\":\"c@x.io\"}"), new MockHttpServletResponse(), rejected);
+        MockFilterChain otherClient = new MockFilterChain();
+        filter.doFilter(login("10.0.0.2", "{\"email\":\"c@x.io\"}"), new MockHttpServletResponse(), otherClient);
+
+        assertThat(rejected.getRequest()).isNull();
+        assertThat(otherClient.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest login(String remoteAddr, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,47 @@
+package com.pm.track.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncoderConfigTest {
+
+    private static final String PASSWORD = "secret-password";
+
+    private final PasswordEncoder encoder = new PasswordEncoderConfig().passwordEncoder("bcrypt", 6);
+
+    @Test
+    void keepsHashesAtTheConfiguredCost() {
+        String hash = encoder.encode(PASSWORD);
+
+        assertThat(hash).startsWith("{bcrypt}$2a$06$");
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void upgradesHashesBelowTheConfiguredCost() {
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD))).isTrue();
+    }
+
+    @Test
+    void rehashesHashesAboveTheConfiguredCostWhenTheStrengthIsLowered() {
+        String stored = "{bcrypt}" + new BCryptPasswordEncoder(8).encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, stored)).isTrue();
+        assertThat(encoder.upgradeEncoding(stored)).isTrue();
+    }
+
+    @Test
+    void upgradesUnprefixedAndOtherAlgorithmHashes() {
+        String legacy = new BCryptPasswordEncoder(6).encode(PASSWORD);
+        String pbkdf2 = "{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(pbkdf2)).isTrue();
+    }
+}
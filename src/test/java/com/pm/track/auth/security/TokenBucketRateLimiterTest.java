@@ -0,0 +1,103 @@
+package com.pm.track.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    // 3 tokens, refilled at one per second
+    private final TokenBucketRateLimiter limiter =
+            new TokenBucketRateLimiter(3, 60, Duration.ofMinutes(10), 1000, now::get);
+
+    @Test
+    void allowsABurstUpToCapacityThenReportsTheWait() {
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        assertThat(limiter.tryAcquire("a")).isEqualTo(1000);
+    }
+
+    @Test
+    void refillsWithElapsedTime() {
+        drain("a");
+
+        now.addAndGet(400);
+        assertThat(limiter.tryAcquire("a")).isEqualTo(600);
+
+        now.addAndGet(600);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        drain("a");
+        now.addAndGet(Duration.ofHours(1).toMillis());
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(1000);
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        drain("a");
+
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void rejectsCapacityThatDoesNotFitThePackedState() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(5000, 60, Duration.ofMinutes(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanCapacity() throws Exception {
+        TokenBucketRateLimiter shared = new TokenBucketRateLimiter(100, 1, Duration.ofMinutes(10), 10, now::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(() -> {
+                    int allowed = 0;
+                    for (int j = 0; j < 50; j++) {
+                        if (shared.tryAcquire("k") == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> result : pool.invokeAll(callers)) {
+                total += result.get();
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void drain(String key) {
+        while (limiter.tryAcquire(key) == 0) {
+            // take every token left
+        }
+    }
+}
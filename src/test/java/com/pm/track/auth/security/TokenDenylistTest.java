@@ -0,0 +1,121 @@
+package com.pm.track.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenDenylistTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long T0 = 1_000 * MINUTE; // start of a bucket
+
+    private final AtomicLong now = new AtomicLong(T0);
+
+    // 10 minute tokens, 1 minute buckets: a ring of 12 slots
+    private final TokenDenylist denylist = new TokenDenylist(10 * MINUTE, Duration.ofMinutes(1), 65536, now::get);
+
+    @Test
+    void reportsOnlyRevokedIds() {
+        long expiry = T0 + 5 * MINUTE;
+        denylist.revoke("a", expiry);
+
+        assertThat(denylist.isRevoked("a", expiry)).isTrue();
+        assertThat(denylist.isRevoked("b", expiry)).isFalse();
+        // Looked up by the expiry's bucket, so another expiry misses
+        assertThat(denylist.isRevoked("a", expiry + 2 * MINUTE)).isFalse();
+    }
+
+    @Test
+    void readsIdAndExpiryFromClaims() {
+        long expiry = T0 + 5 * MINUTE;
+        denylist.revoke("a", expiry);
+
+        Claims revoked = Jwts.claims().setId("a").setExpiration(new Date(expiry));
+        Claims other = Jwts.claims().setId("b").setExpiration(new Date(expiry));
+        Claims noId = Jwts.claims().setExpiration(new Date(expiry));
+        Claims noExpiry = Jwts.claims().setId("a");
+
+        assertThat(denylist.isRevoked(revoked)).isTrue();
+        assertThat(denylist.isRevoked(other)).isFalse();
+        assertThat(denylist.isRevoked(noId)).isFalse();
+        assertThat(denylist.isRevoked(noExpiry)).isFalse();
+    }
+
+    @Test
+    void ignoresTokensThatAlreadyExpired() {
+        denylist.revoke("a", T0);
+        denylist.revoke("b", T0 - MINUTE);
+
+        assertThat(denylist.isRevoked("a", T0)).isFalse();
+        assertThat(denylist.isRevoked("b", T0 - MINUTE)).isFalse();
+    }
+
+    @Test
+    void reusesRingSlotOnceItsTokensHaveExpired() {
+        long oldExpiry = T0 + 2 * MINUTE + 30_000;
+        denylist.revoke("old", oldExpiry);
+
+        // One full ring later the same slot holds a new window
+        now.set(T0 + 12 * MINUTE);
+        long newExpiry = oldExpiry + 12 * MINUTE;
+        denylist.revoke("new", newExpiry);
+
+        assertThat(denylist.isRevoked("new", newExpiry)).isTrue();
+        assertThat(denylist.isRevoked("old", oldExpiry)).isFalse();
+        // The old window's ids do not leak into the new one
+        assertThat(denylist.isRevoked("old", newExpiry)).isFalse();
+    }
+
+    @Test
+    void keepsTokensBeyondTheHorizonInOverflow() {
+        long farExpiry = T0 + 30 * MINUTE;
+        denylist.revoke("long-lived", farExpiry);
+
+        assertThat(denylist.isRevoked("long-lived", farExpiry)).isTrue();
+
+        now.set(farExpiry - MINUTE);
+        denylist.evictExpired();
+        assertThat(denylist.isRevoked("long-lived", farExpiry)).isTrue();
+
+        now.set(farExpiry);
+        denylist.evictExpired();
+        assertThat(denylist.isRevoked("long-lived", farExpiry)).isFalse();
+    }
+
+    @Test
+    void evictExpiredDropsPastBucketsOnly() {
+        long soon = T0 + MINUTE + 30_000;
+        long later = T0 + 8 * MINUTE;
+        denylist.revoke("soon", soon);
+        denylist.revoke("later", later);
+
+        now.set(T0 + 5 * MINUTE);
+        denylist.evictExpired();
+
+        assertThat(denylist.isRevoked("soon", soon)).isFalse();
+        assertThat(denylist.isRevoked("later", later)).isTrue();
+    }
+
+    @Test
+    void exactSetRejectsBloomFalsePositives() {
+        // 64 bits and 500 ids: the filter is saturated and matches everything
+        TokenDenylist small = new TokenDenylist(10 * MINUTE, Duration.ofMinutes(1), 64, now::get);
+        long expiry = T0 + 5 * MINUTE;
+        for (int i = 0; i < 500; i++) {
+            small.revoke("revoked-" + i, expiry);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(small.isRevoked("revoked-" + i, expiry)).isTrue();
+        }
+        for (int i = 0; i < 2000; i++) {
+            assertThat(small.isRevoked("other-" + i, expiry)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.pm.track.auth.security;
+
+import com.pm.track.common.datasource.ReadWriteRoutingDataSource;
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.user.entity.User;
+import com.pm.track.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The user behind a principal is read from the primary, through the same
+ * routing as production: the replica stands in as one that still has the
+ * user enabled after the primary disabled it.
+ */
+class UserDetailsServiceImplTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final Connection primaryConnection = mock(Connection.class, "primary");
+    private final Connection replicaConnection = mock(Connection.class, "replica");
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private DataSource dataSource;
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primaryConnection.createStatement()).thenReturn(mock(Statement.class));
+        when(replicaConnection.createStatement()).thenReturn(mock(Statement.class));
+
+        ReadWriteRoutingDataSource routing =
+                new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), Duration.ofSeconds(5));
+        routing.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        // The row as each database has it: disabled on the primary, not yet replayed on the replica
+        when(userRepository.findFreshByEmail(EMAIL)).thenAnswer(invocation ->
+                Optional.of(user(connectionInUse() != primaryConnection)));
+
+        ProxyFactory proxyFactory = new ProxyFactory(new UserDetailsServiceImpl(userRepository));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()));
+        userDetailsService = (UserDetailsServiceImpl) proxyFactory.getProxy();
+    }
+
+    @Test
+    void disabledUserIsReadFromThePrimary() {
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).isEnabled()).isFalse();
+    }
+
+    @Test
+    void disabledUserIsNotRecachedFromALaggingReplica() {
+        UserPrincipalCache principalCache =
+                new UserPrincipalCache(userDetailsService, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+        principalCache.invalidate(EMAIL);
+
+        assertThat(principalCache.get(EMAIL).isEnabled()).isFalse();
+    }
+
+    // The physical connection the current transaction's statements run on
+    private Connection connectionInUse() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        connection.createStatement();
+        return ((ConnectionProxy) connection).getTargetConnection();
+    }
+
+    private static User user(boolean enabled) {
+        return User.builder()
+                .id(7L)
+                .email(EMAIL)
+                .password("hash")
+                .role(UserRole.USER)
+                .enabled(enabled)
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.pm.track.auth.service;
+
+import com.pm.track.auth.dto.TokenResponse;
+import com.pm.track.auth.repository.RefreshTokenRepository;
+import com.pm.track.auth.security.JwtUtil;
+import com.pm.track.auth.security.UserDetailsImpl;
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.exception.CustomException;
+import com.pm.track.user.entity.RefreshToken;
+import com.pm.track.user.entity.User;
+import com.pm.track.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotation and revocation rules of {@link RefreshTokenService#refresh}, with the
+ * repositories mocked; {@code markUsed} stands in for the conditional UPDATE
+ * that decides which of two concurrent refreshes wins.
+ */
+class RefreshTokenServiceTest {
+
+    private static final String RAW_TOKEN = "presented-refresh-token";
+    private static final String FAMILY = "family-1";
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final RefreshTokenService service =
+            new RefreshTokenService(refreshTokenRepository, userRepository, jwtUtil, Duration.ofDays(14));
+
+    private User user;
+    private RefreshToken token;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .id(7L)
+                .email("user@example.com")
+                .password("hash")
+                .role(UserRole.USER)
+                .enabled(true)
+                .tokenVersion(2)
+                .build();
+        token = RefreshToken.builder()
+                .id(11L)
+                .tokenHash(OpaqueTokens.hash(RAW_TOKEN))
+                .user(user)
+                .familyId(FAMILY)
+                .tokenVersion(2)
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .build();
+        when(refreshTokenRepository.findWithUserByTokenHash(OpaqueTokens.hash(RAW_TOKEN)))
+                .thenReturn(Optional.of(token));
+        when(jwtUtil.generateToken(any(UserDetailsImpl.class))).thenReturn("access-token");
+        when(jwtUtil.getExpirationMs()).thenReturn(900_000L);
+    }
+
+    @Test
+    void rotatesIntoANewTokenOfTheSameFamily() {
+        when(refreshTokenRepository.markUsed(eq(11L), any())).thenReturn(1);
+
+        TokenResponse response = service.refresh(RAW_TOKEN);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(response.getToken()).isEqualTo("access-token");
+        assertThat(response.getExpiresIn()).isEqualTo(900);
+        assertThat(response.getRefreshToken()).isNotEqualTo(RAW_TOKEN);
+        assertThat(saved.getValue().getTokenHash()).isEqualTo(OpaqueTokens.hash(response.getRefreshToken()));
+        assertThat(saved.getValue().getFamilyId()).isEqualTo(FAMILY);
+        assertThat(saved.getValue().getTokenVersion()).isEqualTo(2);
+        assertThat(saved.getValue().getUser()).isSameAs(user);
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+    }
+
+    @Test
+    void reuseOfAUsedTokenRevokesTheFamily() {
+        token.setUsedAt(LocalDateTime.now().minusMinutes(1));
+
+        assertUnauthorized("Refresh token already used; please sign in again");
+
+        verify(refreshTokenRepository).deleteFamily(FAMILY);
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void expiredTokenIsDeletedWithoutRevokingTheFamily() {
+        token.setExpiryDate(LocalDateTime.now().minusSeconds(1));
+
+        assertUnauthorized("Refresh token has expired; please sign in again");
+
+        verify(refreshTokenRepository).delete(token);
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void tokenVersionMismatchRevokesTheFamily() {
+        user.setTokenVersion(3); // password changed since the token was issued
+
+        assertUnauthorized("Refresh token revoked; please sign in again");
+
+        verify(refreshTokenRepository).deleteFamily(FAMILY);
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void disabledUserRevokesTheFamily() {
+        user.setEnabled(false);
+
+        assertUnauthorized("Refresh token revoked; please sign in again");
+
+        verify(refreshTokenRepository).deleteFamily(FAMILY);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void losingTheRotationRaceRevokesTheFamily() {
+        when(refreshTokenRepository.markUsed(eq(11L), any())).thenReturn(0);
+
+        assertUnauthorized("Refresh token already used; please sign in again");
+
+        verify(refreshTokenRepository).deleteFamily(FAMILY);
+        verify(refreshTokenRepository, never()).save(any());
+        verify(jwtUtil, never()).generateToken(any());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThatThrownBy(() -> service.refresh("unknown"))
+                .isInstanceOfSatisfying(CustomException.class, ex -> {
+                    assertThat(ex.getMessage()).isEqualTo("Invalid refresh token");
+                    assertThat(ex.getStatus().value()).isEqualTo(401);
+                });
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+    }
+
+    private void assertUnauthorized(String message) {
+        assertThatThrownBy(() -> service.refresh(RAW_TOKEN))
+                .isInstanceOfSatisfying(CustomException.class, ex -> {
+                    assertThat(ex.getMessage()).isEqualTo(message);
+                    assertThat(ex.getStatus().value()).isEqualTo(401);
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package com.pm.track.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTest {
+
+    private static final String SPECIAL = "Tom & \"Jerry\" <b>'s</b>";
+
+    @Test
+    void escapesHtmlSpecialCharactersInHtmlTemplates() {
+        EmailTemplate template = EmailTemplate.compile("<p>Hi {{name}}!</p>", true);
+
+        assertThat(render(template, Map.of("name", SPECIAL)))
+                .isEqualTo("<p>Hi Tom &amp; &quot;Jerry&quot; &lt;b&gt;&#39;s&lt;/b&gt;!</p>");
+    }
+
+    @Test
+    void leavesTextTemplatesUnescaped() {
+        EmailTemplate template = EmailTemplate.compile("Hi {{name}}!", false);
+
+        assertThat(render(template, Map.of("name", SPECIAL))).isEqualTo("Hi " + SPECIAL + "!");
+    }
+
+    @Test
+    void encodesNonAsciiAndSurrogatePairsAsUtf8() {
+        EmailTemplate template = EmailTemplate.compile("Grüße, {{name}} ✉", true);
+        String name = "Zoë 李 😀 Ω";
+
+        byte[] rendered = template.render(Map.of("name", name));
+
+        assertThat(rendered).isEqualTo(("Grüße, " + name + " ✉").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void replacesUnpairedSurrogates() {
+        EmailTemplate template = EmailTemplate.compile("[{{name}}]", false);
+
+        assertThat(render(template, Map.of("name", "a\uD83Db\uDE00"))).isEqualTo("[a?b?]");
+    }
+
+    @Test
+    void rendersMissingValuesAsEmpty() {
+        EmailTemplate template = EmailTemplate.compile("Hi {{name}}, your code is {{code}}.", false);
+
+        assertThat(render(template, Map.of("code", "42"))).isEqualTo("Hi , your code is 42.");
+        assertThat(render(template, Map.of())).isEqualTo("Hi , your code is .");
+    }
+
+    @Test
+    void rendersPlaceholdersAtTheStartAndEnd() {
+        EmailTemplate template = EmailTemplate.compile("{{ first }} and {{last}}", false);
+
+        assertThat(render(template, Map.of("first", "A", "last", "Z"))).isEqualTo("A and Z");
+        assertThat(render(EmailTemplate.compile("{{only}}", true), Map.of("only", "<x>"))).isEqualTo("&lt;x&gt;");
+    }
+
+    @Test
+    void rendersExactlySizedOutputAcrossReusedBuffers() {
+        EmailTemplate template = EmailTemplate.compile("<{{value}}>", true);
+        String large = "&😀".repeat(5_000);
+
+        assertThat(render(template, Map.of("value", large))).isEqualTo("<" + "&amp;😀".repeat(5_000) + ">");
+        assertThat(template.render(Map.of("value", "x"))).hasSize(3);
+    }
+
+    @Test
+    void rejectsUnterminatedPlaceholders() {
+        assertThatThrownBy(() -> EmailTemplate.compile("Hi {{name", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("offset 3");
+    }
+
+    private static String render(EmailTemplate template, Map<String, String> values) {
+        return new String(template.render(values), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pm.track.common.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two databases stood in by mock DataSources; asserts which one a transaction's
+ * statements reach through the same proxy and transaction manager setup as
+ * {@link DataSourceRoutingConfig}.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class, "primary");
+    private final Connection replicaConnection = mock(Connection.class, "replica");
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    private ReadWriteRoutingDataSource routing;
+    private DataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primaryConnection.createStatement()).thenReturn(mock(Statement.class));
+        when(replicaConnection.createStatement()).thenReturn(mock(Statement.class));
+
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), Duration.ofSeconds(5));
+        routing.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void sendsReadOnlyTransactionsToTheReplica() {
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void sendsReadWriteTransactionsToThePrimary() {
+        assertThat(connectionIn(false)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void sendsWorkOutsideTransactionsToThePrimary() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+            assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(primaryConnection);
+        }
+    }
+
+    @Test
+    void readsAfterAWriteInTheSameRequestStayOnThePrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+        assertThat(connectionIn(false)).isSameAs(primaryConnection);
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        // A new request reads from the replica again
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void takesLaggingReplicaOutOfRotationUntilItCatchesUp() throws SQLException {
+        ResultSet lag = mock(ResultSet.class);
+        Statement lagStatement = mock(Statement.class);
+        Connection lagConnection = mock(Connection.class);
+        when(lagConnection.createStatement()).thenReturn(lagStatement);
+        when(lagStatement.executeQuery(anyString())).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(lagConnection);
+
+        when(lag.getDouble(1)).thenReturn(30.0);
+        routing.checkReplicaLag();
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        when(replica.getConnection()).thenReturn(lagConnection);
+        when(lag.getDouble(1)).thenReturn(0.5);
+        routing.checkReplicaLag();
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void takesUnreachableReplicaOutOfRotation() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        routing.checkReplicaLag();
+
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+    }
+
+    // The physical connection a statement in a transaction of the given kind runs on
+    private Connection connectionIn(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                connection.createStatement();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return ((ConnectionProxy) connection).getTargetConnection();
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.pm.track.user.controller;
+
+import com.pm.track.auth.security.AuthRateLimitFilter;
+import com.pm.track.auth.security.JwtAuthenticationFilter;
+import com.pm.track.auth.security.MethodSecurityConfig;
+import com.pm.track.auth.security.UserDetailsImpl;
+import com.pm.track.auth.service.TokenRevocationService;
+import com.pm.track.common.enums.UserRole;
+import com.pm.track.exception.ErrorResponses;
+import com.pm.track.user.service.UserImportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The {@code @PreAuthorize} check on the admin endpoints, with the principal a
+ * signed-in user's token resolves to; the JWT filters themselves are left out.
+ */
+@WebMvcTest(controllers = AdminUserController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {JwtAuthenticationFilter.class, AuthRateLimitFilter.class}))
+@Import({MethodSecurityConfig.class, ErrorResponses.class, AdminUserControllerTest.Metrics.class})
+class AdminUserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void userIsForbiddenFromAdminEndpoints() throws Exception {
+        mockMvc.perform(post("/api/admin/users/7/revoke-tokens")
+                        .with(user(principal(UserRole.USER)))
+                        .with(csrf()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403))
+                .andExpect(jsonPath("$.message").value("Access denied"));
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void adminReachesAdminEndpoints() throws Exception {
+        mockMvc.perform(post("/api/admin/users/7/revoke-tokens")
+                        .with(user(principal(UserRole.ADMIN)))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        verify(tokenRevocationService).revokeAllForUser(7L);
+    }
+
+    private static UserDetailsImpl principal(UserRole role) {
+        return new UserDetailsImpl(1L, "someone@example.com", role, true, 0);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pm.track.user.service;
+
+import com.pm.track.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OfferEmailThrottleTest {
+
+    private static final Duration WINDOW = Duration.ofDays(7);
+    private static final Duration LOST_CLAIM_TTL = Duration.ofMinutes(5);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicLong nanos = new AtomicLong();
+    private final OfferEmailThrottle throttle = new OfferEmailThrottle(userRepository, new SimpleMeterRegistry(),
+            WINDOW, LOST_CLAIM_TTL, 1000, nanos::get);
+
+    @Test
+    void remembersASuccessfulClaimForTheWholeWindow() {
+        when(userRepository.claimOfferEmail(eq(1L), any(), any())).thenReturn(1);
+
+        assertThat(throttle.tryAcquire(1L)).isTrue();
+        advance(WINDOW.minusMinutes(1));
+        assertThat(throttle.tryAcquire(1L)).isFalse();
+
+        verify(userRepository, times(1)).claimOfferEmail(eq(1L), any(), any());
+    }
+
+    @Test
+    void rechecksAClaimLostToAnotherNodeAfterTheShortTtl() {
+        when(userRepository.claimOfferEmail(eq(1L), any(), any())).thenReturn(0, 1);
+
+        assertThat(throttle.tryAcquire(1L)).isFalse();
+        assertThat(throttle.tryAcquire(1L)).isFalse(); // remembered, no second query yet
+        verify(userRepository, times(1)).claimOfferEmail(eq(1L), any(), any());
+
+        advance(LOST_CLAIM_TTL.plusSeconds(1));
+        assertThat(throttle.tryAcquire(1L)).isTrue();
+        verify(userRepository, times(2)).claimOfferEmail(eq(1L), any(), any());
+    }
+
+    @Test
+    void doesNotRememberAFailedClaim() {
+        when(userRepository.claimOfferEmail(eq(1L), any(), any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenReturn(1);
+
+        assertThat(throttle.tryAcquire(1L)).isFalse();
+        assertThat(throttle.tryAcquire(1L)).isTrue();
+
+        verify(userRepository, times(2)).claimOfferEmail(eq(1L), any(), any());
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}